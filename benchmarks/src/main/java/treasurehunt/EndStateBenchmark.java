@@ -0,0 +1,49 @@
+package treasurehunt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the end state check; whether every goal has a chest, and
+ * counting the chests on goals for the score.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class EndStateBenchmark {
+
+	private long[] goals;
+	private State state;
+
+	@Setup
+	public void setUp() {
+		Level level = new Level(Commons.levelOne);
+		goals = level.getGoals();
+		state = level.createState();
+	}
+
+	@Benchmark
+	public boolean solved() {
+		return state.covers(goals);
+	}
+
+	@Benchmark
+	public int score() {
+		return state.countChests(goals);
+	}
+}
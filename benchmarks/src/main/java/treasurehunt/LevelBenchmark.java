@@ -0,0 +1,86 @@
+package treasurehunt;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for loading a level; parsing the level string that
+ * Board.initWorld hands to Level, reading a level from a pack of ten thousand,
+ * and setting up a simulation of it.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelBenchmark {
+
+	/**
+	 * Level string to parse.
+	 */
+	private String layout = Commons.levelOne;
+	/**
+	 * Pack of copies of the level.
+	 */
+	private LevelPack pack;
+	/**
+	 * File holding the pack.
+	 */
+	private File file;
+	/**
+	 * Level to read next from the pack.
+	 */
+	private int next;
+
+	@Setup
+	public void setUp() throws IOException {
+		List<Level> levels = new ArrayList<Level>();
+		Level level = new Level(layout);
+		for (int copy = 0; copy < 10000; copy++)
+			levels.add(level);
+		file = File.createTempFile("levels", ".pack");
+		LevelPack.write(levels, file);
+		pack = new LevelPack(file);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		pack.close();
+		file.delete();
+	}
+
+	@Benchmark
+	public Level parse() {
+		return new Level(layout);
+	}
+
+	@Benchmark
+	public Simulation parseAndStart() {
+		return new Simulation(new Level(layout));
+	}
+
+	@Benchmark
+	public Level readFromPack() {
+		next = (next + 7919) % pack.size();
+		return pack.get(next);
+	}
+}
@@ -0,0 +1,103 @@
+package treasurehunt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for moving the player, covering each of the collision checks
+ * the board used to make on a key press: a tree, water, a ship, a chest that
+ * can not move, a plain step and a push. Blocked moves leave the state alone,
+ * so they run back to back; the push benchmark puts the state back first and
+ * includes that cost.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Thread)
+public class MoveBenchmark implements Commons {
+
+	private Level level;
+	private Simulation tree;
+	private Simulation water;
+	private Simulation ship;
+	private Simulation chest;
+	private Simulation walk;
+	private Simulation push;
+	private State beforePush;
+
+	@Setup
+	public void setUp() {
+		level = new Level(levelOne);
+		// The player starts between two trees.
+		tree = at(2, 4);
+		water = at(1, 5);
+		ship = at(14, 9);
+		// Two chests side by side to the right.
+		chest = at(9, 2);
+		walk = at(3, 7);
+		push = at(5, 2);
+		beforePush = push.getState();
+	}
+
+	/**
+	 * Method to start a simulation with the player on a cell.
+	 *
+	 * @param column
+	 *            Column of the cell.
+	 * @param row
+	 *            Row of the cell.
+	 * @return New simulation.
+	 */
+	private Simulation at(int column, int row) {
+		Simulation simulation = new Simulation(level);
+		State state = level.createState();
+		state.setPlayer(column + row * level.getColumns());
+		simulation.setState(state);
+		return simulation;
+	}
+
+	@Benchmark
+	public int blockedByTree() {
+		return tree.move(RIGHT_COLLISION);
+	}
+
+	@Benchmark
+	public int blockedByWater() {
+		return water.move(LEFT_COLLISION);
+	}
+
+	@Benchmark
+	public int blockedByShip() {
+		return ship.move(RIGHT_COLLISION);
+	}
+
+	@Benchmark
+	public int blockedByChest() {
+		return chest.move(RIGHT_COLLISION);
+	}
+
+	@Benchmark
+	public int walkThereAndBack() {
+		return walk.move(RIGHT_COLLISION) + walk.move(LEFT_COLLISION);
+	}
+
+	@Benchmark
+	public int push() {
+		push.setState(beforePush);
+		return push.move(RIGHT_COLLISION);
+	}
+}
@@ -0,0 +1,106 @@
+package treasurehunt;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for drawing a whole frame of the board into an offscreen image,
+ * for the first level and for a level of a thousand by a thousand cells that
+ * scrolls. The two should cost about the same.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PaintBenchmark implements Commons {
+
+	/**
+	 * Number of cells along each side of the huge level.
+	 */
+	private static final int HUGE = 1000;
+
+	private Board board;
+	private Board hugeBoard;
+	private BufferedImage image;
+	private Graphics2D g;
+
+	@Setup
+	public void setUp() {
+		board = new Board();
+		board.setSize(BOARD_WIDTH, BOARD_HEIGHT);
+		hugeBoard = new Board(hugeLevel());
+		hugeBoard.setSize(BOARD_WIDTH, BOARD_HEIGHT);
+		image = new BufferedImage(BOARD_WIDTH, BOARD_HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		g = image.createGraphics();
+	}
+
+	/**
+	 * Method to make a huge level with trees, water, ships and goals
+	 * scattered over it, a chest on every tenth cell or so and the player in
+	 * the middle.
+	 *
+	 * @return The level.
+	 */
+	private static Level hugeLevel() {
+		Random random = new Random(1);
+		byte[] cells = new byte[HUGE * HUGE];
+		int[] chests = new int[cells.length / 10];
+		int chestCount = 0;
+		int player = HUGE / 2 * HUGE + HUGE / 2;
+		for (int index = 0; index < cells.length; index++) {
+			int roll = random.nextInt(10);
+			if (index == player)
+				continue;
+			if (roll == 0)
+				cells[index] = TREE_CELL;
+			else if (roll == 1)
+				cells[index] = WATER_CELL;
+			else if (roll == 2)
+				cells[index] = SHIP_CELL;
+			else if (roll == 3)
+				cells[index] = GOAL_CELL;
+			else if (roll == 4 && chestCount < chests.length)
+				chests[chestCount++] = index;
+		}
+		return new Level(HUGE, HUGE, cells, Arrays.copyOf(chests, chestCount),
+				player);
+	}
+
+	@TearDown
+	public void tearDown() {
+		g.dispose();
+	}
+
+	@Benchmark
+	public BufferedImage paint() {
+		board.paint(g);
+		return image;
+	}
+
+	@Benchmark
+	public BufferedImage paintHuge() {
+		hugeBoard.paint(g);
+		return image;
+	}
+}
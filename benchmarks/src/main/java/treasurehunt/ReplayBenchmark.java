@@ -0,0 +1,60 @@
+package treasurehunt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for checking a recorded solution of the built in level, with
+ * and without setting up the level first.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReplayBenchmark implements Commons {
+
+	private Level level;
+	private Simulation simulation;
+	private Replay replay;
+
+	@Setup
+	public void setUp() {
+		level = new Level(levelOne);
+		simulation = new Simulation(level);
+		replay = new Replay(level);
+		long time = 0;
+		for (char move : Solver.solve(levelOne).toLowerCase().toCharArray()) {
+			time += 150;
+			replay.record(time, move == 'u' ? TOP_COLLISION
+					: move == 'r' ? RIGHT_COLLISION
+							: move == 'd' ? BOTTOM_COLLISION : LEFT_COLLISION);
+		}
+		if (!replay.verify(level))
+			throw new IllegalStateException("Recorded solution does not solve");
+	}
+
+	@Benchmark
+	public boolean play() {
+		return replay.play(simulation);
+	}
+
+	@Benchmark
+	public boolean verify() {
+		return replay.verify(level);
+	}
+}
@@ -0,0 +1,379 @@
+package treasurehunt;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class for a bundle of the game's images and sounds, ready to use.
+ *
+ * The bundle is made at build time by main. Images are stored as raw
+ * premultiplied ARGB pixels and sounds as raw PCM in the audio mixer's
+ * format, so nothing has to be decoded when the game starts. The bundle
+ * starts with a header: the magic number, the format version and the number
+ * of entries, then an index giving the name, kind, size, offset and length of
+ * each entry. The data of each entry is aligned to eight bytes. All numbers
+ * in the header are big-endian and all data is little-endian.
+ *
+ * At run time the bundle is memory-mapped: in place when it is a plain file,
+ * or from a temporary copy when it is inside a jar, so it is never read into
+ * memory as a whole. Images and sound effects are copied straight out of it.
+ * Music is left out of the bundle; decoded it would be many megabytes, so it
+ * is streamed from its own file instead.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class AssetBundle {
+
+	/**
+	 * Magic number at the start of every bundle, "THAB".
+	 */
+	public static final int MAGIC = 0x54484142;
+	/**
+	 * Version of the format written by this class.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Name of the bundle, next to the game classes.
+	 */
+	public static final String NAME = "assets.bundle";
+
+	/**
+	 * Kind of entry for an image.
+	 */
+	static final int IMAGE = 1;
+	/**
+	 * Kind of entry for a sound.
+	 */
+	static final int SOUND = 2;
+
+	/**
+	 * Bundle found next to the game classes, or null if there is none.
+	 */
+	private static final AssetBundle BUNDLE = open();
+
+	/**
+	 * Data of the whole bundle.
+	 */
+	private final ByteBuffer buffer;
+	/**
+	 * Entries by name.
+	 */
+	private final HashMap<String, Entry> entries = new HashMap<String, Entry>();
+
+	/**
+	 * Constructor for a bundle. Reads the index.
+	 *
+	 * @param buffer
+	 *            Data of the whole bundle.
+	 * @throws IOException
+	 *             If the data is not a bundle.
+	 */
+	AssetBundle(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		buffer.order(ByteOrder.BIG_ENDIAN);
+		if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not an asset bundle");
+		if (buffer.getInt(4) != VERSION)
+			throw new IOException("Asset bundle is version "
+					+ buffer.getInt(4) + ", expected " + VERSION);
+		int count = buffer.getInt(8);
+		int at = 12;
+		for (int entry = 0; entry < count; entry++) {
+			int nameLength = buffer.getShort(at) & 0xFFFF;
+			byte[] name = new byte[nameLength];
+			buffer.get(at + 2, name);
+			at += 2 + nameLength;
+			Entry value = new Entry(buffer.get(at), buffer.getInt(at + 1),
+					buffer.getInt(at + 5), buffer.getInt(at + 9),
+					buffer.getInt(at + 13));
+			at += 17;
+			if (value.offset < 0 || value.offset + (long) value.length > buffer
+					.limit())
+				throw new IOException("Asset bundle has a broken index");
+			entries.put(new String(name, StandardCharsets.UTF_8), value);
+		}
+	}
+
+	/**
+	 * Accessor for the bundle next to the game classes.
+	 *
+	 * @return The bundle, or null if the game was built without one.
+	 */
+	public static AssetBundle get() {
+		return BUNDLE;
+	}
+
+	/**
+	 * Method to copy an image out of the bundle.
+	 *
+	 * @param name
+	 *            File name the image was bundled from.
+	 * @return Premultiplied ARGB image, or null if it is not in the bundle.
+	 */
+	public BufferedImage getImage(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null || entry.kind != IMAGE)
+			return null;
+		BufferedImage image = new BufferedImage(entry.width, entry.height,
+				BufferedImage.TYPE_INT_ARGB_PRE);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer())
+				.getData();
+		slice(entry).asIntBuffer().get(pixels);
+		return image;
+	}
+
+	/**
+	 * Method to copy a sound out of the bundle.
+	 *
+	 * @param name
+	 *            File name the sound was bundled from.
+	 * @return Samples in the mixer's format, or null if it is not in the
+	 *         bundle.
+	 */
+	public short[] getSound(String name) {
+		Entry entry = entries.get(name);
+		if (entry == null || entry.kind != SOUND)
+			return null;
+		ByteBuffer data = slice(entry);
+		short[] samples = new short[data.remaining() / 2];
+		data.asShortBuffer().get(samples);
+		return samples;
+	}
+
+	/**
+	 * Method to make a little-endian view of the data of an entry.
+	 *
+	 * @param entry
+	 *            Entry to view.
+	 * @return View of just the entry's data.
+	 */
+	private ByteBuffer slice(Entry entry) {
+		return buffer.slice(entry.offset, entry.length).order(
+				ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Method to find and open the bundle next to the game classes.
+	 *
+	 * @return The bundle, or null if there is none or it can not be read.
+	 */
+	private static AssetBundle open() {
+		URL url = AssetBundle.class.getResource(NAME);
+		if (url == null)
+			return null;
+		try {
+			if (url.getProtocol().equals("file")) {
+				FileChannel channel = FileChannel.open(
+						Paths.get(url.toURI()), StandardOpenOption.READ);
+				try {
+					return new AssetBundle(channel.map(
+							FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+				} finally {
+					channel.close();
+				}
+			}
+			// A jar entry can not be mapped, so copy it out to a file first.
+			Path copy = Files.createTempFile("treasurehunt", ".bundle");
+			copy.toFile().deleteOnExit();
+			InputStream in = url.openStream();
+			try {
+				Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				in.close();
+			}
+			FileChannel channel = FileChannel.open(copy,
+					StandardOpenOption.READ);
+			try {
+				return new AssetBundle(channel.map(
+						FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+			} finally {
+				channel.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (URISyntaxException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Entry in the index of a bundle.
+	 */
+	private static class Entry {
+
+		/**
+		 * IMAGE or SOUND.
+		 */
+		final int kind;
+		/**
+		 * Width of an image, or number of channels of a sound.
+		 */
+		final int width;
+		/**
+		 * Height of an image, or number of frames of a sound.
+		 */
+		final int height;
+		/**
+		 * Where the data starts in the bundle.
+		 */
+		final int offset;
+		/**
+		 * Length of the data, in bytes.
+		 */
+		final int length;
+
+		/**
+		 * Constructor for an entry.
+		 */
+		Entry(int kind, int width, int height, int offset, int length) {
+			this.kind = kind;
+			this.width = width;
+			this.height = height;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Method to write a bundle of the game's images and sounds.
+	 *
+	 * @param file
+	 *            File to write to.
+	 * @throws IOException
+	 *             If an asset can not be read or the file can not be
+	 *             written.
+	 */
+	public static void write(File file) throws IOException {
+		List<String> names = new ArrayList<String>();
+		List<byte[]> data = new ArrayList<byte[]>();
+		List<int[]> sizes = new ArrayList<int[]>();
+
+		for (String name : AssetLoader.IMAGES) {
+			URL url = AssetBundle.class.getResource(name);
+			if (url == null)
+				throw new IOException("Missing image: " + name);
+			BufferedImage decoded = ImageIO.read(url);
+			BufferedImage image = new BufferedImage(decoded.getWidth(),
+					decoded.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+			Graphics2D g = image.createGraphics();
+			g.drawImage(decoded, 0, 0, null);
+			g.dispose();
+			int[] pixels = ((DataBufferInt) image.getRaster()
+					.getDataBuffer()).getData();
+			ByteBuffer bytes = ByteBuffer.allocate(pixels.length * 4).order(
+					ByteOrder.LITTLE_ENDIAN);
+			bytes.asIntBuffer().put(pixels);
+			names.add(name);
+			data.add(bytes.array());
+			sizes.add(new int[] { IMAGE, image.getWidth(), image.getHeight() });
+		}
+
+		// The effects, already converted for the mixer. Streamed music stays
+		// in its own file.
+		for (SoundEffect effect : SoundEffect.values()) {
+			if (effect.isStreamed())
+				continue;
+			String name = effect.getFilename();
+			URL url = AssetBundle.class.getResource(name);
+			if (url == null)
+				throw new IOException("Missing sound: " + name);
+			short[] samples;
+			try {
+				samples = AudioMixer.load(url);
+			} catch (javax.sound.sampled.UnsupportedAudioFileException e) {
+				throw new IOException("Could not read sound: " + name, e);
+			}
+			ByteBuffer bytes = ByteBuffer.allocate(samples.length * 2).order(
+					ByteOrder.LITTLE_ENDIAN);
+			bytes.asShortBuffer().put(samples);
+			names.add(name);
+			data.add(bytes.array());
+			sizes.add(new int[] { SOUND, 2, samples.length / 2 });
+		}
+
+		// Lay the data out after the index, each entry on an eight byte
+		// boundary.
+		long at = 12;
+		for (String name : names)
+			at += 2 + name.getBytes(StandardCharsets.UTF_8).length + 17;
+		int[] offsets = new int[names.size()];
+		for (int entry = 0; entry < names.size(); entry++) {
+			at = (at + 7) & ~7L;
+			if (at + data.get(entry).length > Integer.MAX_VALUE)
+				throw new IOException("Too much data for one bundle");
+			offsets[entry] = (int) at;
+			at += data.get(entry).length;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(names.size());
+			for (int entry = 0; entry < names.size(); entry++) {
+				byte[] name = names.get(entry).getBytes(StandardCharsets.UTF_8);
+				out.writeShort(name.length);
+				out.write(name);
+				out.writeByte(sizes.get(entry)[0]);
+				out.writeInt(sizes.get(entry)[1]);
+				out.writeInt(sizes.get(entry)[2]);
+				out.writeInt(offsets[entry]);
+				out.writeInt(data.get(entry).length);
+			}
+			for (int entry = 0; entry < names.size(); entry++) {
+				while (out.size() < offsets[entry])
+					out.writeByte(0);
+				out.write(data.get(entry));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Main method to bundle the game's images and sounds. Run by the build
+	 * once the classes and resources are in place.
+	 *
+	 * @param args
+	 *            File to write the bundle to.
+	 * @throws IOException
+	 *             If an asset can not be read or the file can not be
+	 *             written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: AssetBundle assets.bundle");
+			return;
+		}
+		File file = new File(args[0]);
+		write(file);
+		System.out.println("Bundled assets into " + file + " ("
+				+ file.length() / 1024 + " KB)");
+	}
+}
@@ -0,0 +1,196 @@
+package treasurehunt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Class to decode the game's images and sounds in the background.
+ *
+ * Every image and sound effect is decoded on its own task, on a pool with a
+ * thread for each processor, into the image and sound caches. The images are
+ * all a level needs to be shown, so they are tracked apart from the sounds,
+ * and the game can start as soon as they are done. Music is streamed while
+ * it plays, so it is not loaded here. If an image can not be decoded the
+ * game can not be shown, so the failure is passed on; if a sound can not,
+ * the game goes on without sound.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class AssetLoader {
+
+	/**
+	 * Images every level uses.
+	 */
+	public static final String[] IMAGES = { Tree.IMAGE, Water.IMAGE,
+			Ship.IMAGE, Goal.IMAGE, Treasure.IMAGE, Player.IMAGE };
+
+	/**
+	 * Pool the assets are decoded on.
+	 */
+	private final ExecutorService pool;
+	/**
+	 * Number of assets to load.
+	 */
+	private final int total;
+	/**
+	 * Number of assets loaded so far.
+	 */
+	private final AtomicInteger done = new AtomicInteger();
+	/**
+	 * Completes once every image is decoded.
+	 */
+	private final CompletableFuture<Void> images;
+	/**
+	 * Completes once every sound is decoded and the mixer is open.
+	 */
+	private final CompletableFuture<Void> sounds;
+	/**
+	 * Time, in nanoseconds, loading started.
+	 */
+	private final long started = System.nanoTime();
+	/**
+	 * Time, in nanoseconds, the images were ready, or 0 until then.
+	 */
+	private volatile long imagesReady;
+	/**
+	 * Time, in nanoseconds, the sounds were ready, or 0 until then.
+	 */
+	private volatile long soundsReady;
+
+	/**
+	 * Constructor for a loader. Starts decoding everything straight away.
+	 */
+	public AssetLoader() {
+		pool = Executors.newFixedThreadPool(Runtime.getRuntime()
+				.availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "Asset loader");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		List<CompletableFuture<?>> imageTasks = new ArrayList<CompletableFuture<?>>();
+		for (String name : IMAGES)
+			imageTasks.add(CompletableFuture.runAsync(() -> {
+				ImageCache.get(name);
+				done.incrementAndGet();
+			}, pool));
+
+		// The sound effects wait for this loader rather than loading
+		// themselves on the first sound played.
+		SoundEffect.deferInit();
+		List<CompletableFuture<?>> soundTasks = new ArrayList<CompletableFuture<?>>();
+		for (SoundEffect effect : SoundEffect.values()) {
+			if (effect.isStreamed())
+				continue;
+			soundTasks.add(CompletableFuture.runAsync(() -> {
+				SoundCache.get(effect.getFilename());
+				done.incrementAndGet();
+			}, pool));
+		}
+		total = imageTasks.size() + soundTasks.size();
+
+		images = CompletableFuture.allOf(
+				imageTasks.toArray(new CompletableFuture<?>[0])).thenRun(
+				() -> imagesReady = System.nanoTime());
+		// Opening the mixer uses the samples decoded above.
+		sounds = CompletableFuture
+				.allOf(soundTasks.toArray(new CompletableFuture<?>[0]))
+				.thenRunAsync(SoundEffect::init, pool)
+				.thenRun(() -> soundsReady = System.nanoTime());
+		sounds.exceptionally(error -> {
+			cause(error).printStackTrace();
+			return null;
+		});
+		CompletableFuture.allOf(images, sounds).whenComplete(
+				(result, error) -> pool.shutdown());
+	}
+
+	/**
+	 * Method to find how much has been loaded.
+	 *
+	 * @return Fraction of the assets loaded, from 0 to 1.
+	 */
+	public float getProgress() {
+		return total == 0 ? 1 : done.get() / (float) total;
+	}
+
+	/**
+	 * Method to run something once the images are decoded. It runs on a
+	 * loader thread, or straight away if they already are.
+	 *
+	 * @param action
+	 *            Action to run.
+	 */
+	public void whenImagesReady(Runnable action) {
+		images.thenRun(action);
+	}
+
+	/**
+	 * Method to run something if an image can not be decoded. It runs on a
+	 * loader thread, or straight away if one already failed.
+	 *
+	 * @param action
+	 *            Action to run, given the reason the image failed.
+	 */
+	public void whenImagesFailed(Consumer<Throwable> action) {
+		images.exceptionally(error -> {
+			action.accept(cause(error));
+			return null;
+		});
+	}
+
+	/**
+	 * Method to find why a task failed.
+	 *
+	 * @param error
+	 *            Failure a future completed with.
+	 * @return Exception thrown by the task, without the wrapping added by
+	 *         the future.
+	 */
+	private static Throwable cause(Throwable error) {
+		if (error instanceof CompletionException && error.getCause() != null)
+			return error.getCause();
+		return error;
+	}
+
+	/**
+	 * Method to run something once the sounds are decoded and the mixer is
+	 * open. It runs on a loader thread, or straight away if they already
+	 * are.
+	 *
+	 * @param action
+	 *            Action to run.
+	 */
+	public void whenSoundsReady(Runnable action) {
+		sounds.thenRun(action);
+	}
+
+	/**
+	 * Method to find how long the images took to load.
+	 *
+	 * @return Time, in milliseconds, from starting to the images being
+	 *         ready, or -1 if they are not ready yet.
+	 */
+	public long getImagesMillis() {
+		long ready = imagesReady;
+		return ready == 0 ? -1 : (ready - started) / 1000000;
+	}
+
+	/**
+	 * Method to find how long the sounds took to load.
+	 *
+	 * @return Time, in milliseconds, from starting to the sounds being
+	 *         ready, or -1 if they are not ready yet.
+	 */
+	public long getSoundsMillis() {
+		long ready = soundsReady;
+		return ready == 0 ? -1 : (ready - started) / 1000000;
+	}
+}
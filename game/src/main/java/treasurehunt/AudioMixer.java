@@ -0,0 +1,380 @@
+package treasurehunt;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Class to mix the sound effects and music in software onto one audio line.
+ *
+ * The mixer runs on its own thread, which is the only thread that touches
+ * the line or the voices. Other threads ask for sounds by bumping a counter
+ * for the sound in an atomic array, so asking never blocks or allocates, and
+ * the mixer picks the requests up before each block it mixes. A fixed pool of
+ * voices is made up front; when they are all busy the voice nearest its end
+ * is reused. Every sound is converted to the mixer's format when it is
+ * loaded, so mixing is just adding samples.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class AudioMixer implements Runnable {
+
+	/**
+	 * Format of the mixed sound; 44.1 kHz, 16 bit, stereo.
+	 */
+	public static final AudioFormat FORMAT = new AudioFormat(44100f, 16, 2,
+			true, false);
+	/**
+	 * Number of sample frames mixed at a time, about 12 milliseconds.
+	 */
+	public static final int FRAMES = 512;
+	/**
+	 * Number of sounds that can play at once.
+	 */
+	public static final int VOICES = 16;
+
+	/**
+	 * Loop command to start a sound looping from its beginning.
+	 */
+	private static final int LOOP = 1;
+	/**
+	 * Loop command to stop every voice playing a sound.
+	 */
+	private static final int STOP = 2;
+
+	/**
+	 * Samples of each sound, left and right interleaved.
+	 */
+	private final short[][] sounds;
+	/**
+	 * Number of times each sound has been asked to play and not yet
+	 * started.
+	 */
+	private final AtomicIntegerArray plays;
+	/**
+	 * Last loop command given for each sound, or zero if it has been
+	 * carried out.
+	 */
+	private final AtomicIntegerArray loops;
+	/**
+	 * Sound each voice is playing, or -1 if the voice is free.
+	 */
+	private final int[] voiceSound = new int[VOICES];
+	/**
+	 * Next sample each voice will play.
+	 */
+	private final int[] voicePosition = new int[VOICES];
+	/**
+	 * Whether each voice starts again when it reaches the end.
+	 */
+	private final boolean[] voiceLoops = new boolean[VOICES];
+	/**
+	 * Block being mixed, before the gain is applied.
+	 */
+	private final int[] mix = new int[FRAMES * 2];
+	/**
+	 * Block of bytes written to the line.
+	 */
+	private final byte[] output = new byte[FRAMES * 4];
+	/**
+	 * Gain applied to the mix, from 0 for silence to 1 for full volume.
+	 */
+	private volatile float gain = 1f;
+	/**
+	 * Music streamed into the mix.
+	 */
+	private final MusicStream music;
+	/**
+	 * Line the mix is written to.
+	 */
+	private final SourceDataLine line;
+	/**
+	 * True until the mixer is closed.
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * Constructor for a mixer. Opens the line and starts the mixer thread.
+	 *
+	 * @param sounds
+	 *            Samples of each sound, in the mixer's format. The arrays are
+	 *            kept, not copied.
+	 * @throws LineUnavailableException
+	 *             If no audio line can be opened.
+	 */
+	public AudioMixer(short[][] sounds) throws LineUnavailableException {
+		this.sounds = sounds;
+		plays = new AtomicIntegerArray(sounds.length);
+		loops = new AtomicIntegerArray(sounds.length);
+		for (int voice = 0; voice < VOICES; voice++)
+			voiceSound[voice] = -1;
+		music = new MusicStream(FORMAT.getSampleRate(), getClass());
+
+		// A few blocks of buffering; enough to ride out a late wake up
+		// without adding much delay before a sound is heard.
+		line = AudioSystem.getSourceDataLine(FORMAT);
+		line.open(FORMAT, output.length * 4);
+		line.start();
+
+		Thread thread = new Thread(this, "Audio mixer");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MAX_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Method to ask for a sound to be played once. Safe to call from any
+	 * thread; it never blocks.
+	 *
+	 * @param sound
+	 *            Number of the sound.
+	 */
+	public void play(int sound) {
+		plays.incrementAndGet(sound);
+	}
+
+	/**
+	 * Method to ask for a sound to play over and over from its beginning,
+	 * stopping it first if it is playing.
+	 *
+	 * @param sound
+	 *            Number of the sound.
+	 */
+	public void loop(int sound) {
+		loops.set(sound, LOOP);
+	}
+
+	/**
+	 * Method to ask for every voice playing a sound to stop.
+	 *
+	 * @param sound
+	 *            Number of the sound.
+	 */
+	public void stop(int sound) {
+		plays.set(sound, 0);
+		loops.set(sound, STOP);
+	}
+
+	/**
+	 * Accessor for the music.
+	 *
+	 * @return Music streamed into the mix.
+	 */
+	public MusicStream getMusic() {
+		return music;
+	}
+
+	/**
+	 * Mutator for the gain.
+	 *
+	 * @param gain
+	 *            Gain applied to the mix, from 0 for silence to 1 for full
+	 *            volume.
+	 */
+	public void setGain(float gain) {
+		this.gain = gain;
+	}
+
+	/**
+	 * Method to stop the mixer thread and close the line.
+	 */
+	public void close() {
+		running = false;
+	}
+
+	/**
+	 * Method run by the mixer thread. Mixes a block at a time; writing a
+	 * block waits for room in the line, which keeps the loop in time with
+	 * the sound card.
+	 */
+	public void run() {
+		while (running) {
+			takeRequests();
+			mixBlock();
+			line.write(output, 0, output.length);
+		}
+		line.stop();
+		line.close();
+	}
+
+	/**
+	 * Method to start and stop voices for the requests made since the last
+	 * block.
+	 */
+	private void takeRequests() {
+		for (int sound = 0; sound < sounds.length; sound++) {
+			int command = loops.getAndSet(sound, 0);
+			if (command != 0) {
+				for (int voice = 0; voice < VOICES; voice++)
+					if (voiceSound[voice] == sound)
+						voiceSound[voice] = -1;
+				if (command == LOOP)
+					start(sound, true);
+			}
+			// More copies than voices at once would only replace each other.
+			int count = Math.min(plays.getAndSet(sound, 0), VOICES);
+			for (; count > 0; count--)
+				start(sound, false);
+		}
+	}
+
+	/**
+	 * Method to start a sound on a free voice, or on the one closest to
+	 * finishing if none are free. Looping voices are only taken if every
+	 * voice is looping.
+	 *
+	 * @param sound
+	 *            Number of the sound.
+	 * @param loop
+	 *            True if the sound should loop.
+	 */
+	private void start(int sound, boolean loop) {
+		if (sounds[sound].length == 0)
+			return;
+		int chosen = -1;
+		int left = Integer.MAX_VALUE;
+		for (int voice = 0; voice < VOICES; voice++) {
+			if (voiceSound[voice] < 0) {
+				chosen = voice;
+				break;
+			}
+			int remaining = sounds[voiceSound[voice]].length
+					- voicePosition[voice];
+			if (voiceLoops[voice])
+				remaining = Integer.MAX_VALUE - 1;
+			if (remaining < left) {
+				left = remaining;
+				chosen = voice;
+			}
+		}
+		voiceSound[chosen] = sound;
+		voicePosition[chosen] = 0;
+		voiceLoops[chosen] = loop;
+	}
+
+	/**
+	 * Method to mix one block of every voice into the output bytes.
+	 */
+	private void mixBlock() {
+		Arrays.fill(mix, 0);
+		for (int voice = 0; voice < VOICES; voice++) {
+			int sound = voiceSound[voice];
+			if (sound < 0)
+				continue;
+			short[] samples = sounds[sound];
+			int position = voicePosition[voice];
+			for (int sample = 0; sample < mix.length; sample++) {
+				if (position == samples.length) {
+					if (!voiceLoops[voice]) {
+						voiceSound[voice] = -1;
+						break;
+					}
+					position = 0;
+				}
+				mix[sample] += samples[position++];
+			}
+			voicePosition[voice] = position;
+		}
+		music.mixInto(mix);
+
+		// Scale by the gain and clip to 16 bits, little-endian.
+		float scale = gain;
+		for (int sample = 0; sample < mix.length; sample++) {
+			int value = (int) (mix[sample] * scale);
+			if (value > Short.MAX_VALUE)
+				value = Short.MAX_VALUE;
+			else if (value < Short.MIN_VALUE)
+				value = Short.MIN_VALUE;
+			output[sample * 2] = (byte) value;
+			output[sample * 2 + 1] = (byte) (value >> 8);
+		}
+	}
+
+	/**
+	 * Method to load a sound file and convert it to the mixer's format.
+	 * Files at other rates are resampled, and mono files are copied to both
+	 * sides.
+	 *
+	 * @param url
+	 *            Location of the sound file.
+	 * @return Samples of the sound, left and right interleaved.
+	 * @throws IOException
+	 *             If the file can not be read.
+	 * @throws UnsupportedAudioFileException
+	 *             If the file is not a sound file Java can read.
+	 */
+	public static short[] load(URL url) throws IOException,
+			UnsupportedAudioFileException {
+		AudioInputStream in = AudioSystem.getAudioInputStream(url);
+		try {
+			AudioFormat source = in.getFormat();
+			int channels = source.getChannels();
+			AudioFormat pcm = new AudioFormat(source.getSampleRate(), 16,
+					channels, true, false);
+			AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, in);
+			byte[] bytes = decoded.readAllBytes();
+			int frames = bytes.length / (2 * channels);
+			return convert(bytes, frames, channels, source.getSampleRate());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Method to convert 16 bit little-endian samples to stereo at the mixer's
+	 * rate.
+	 *
+	 * @param bytes
+	 *            Samples to convert.
+	 * @param frames
+	 *            Number of sample frames.
+	 * @param channels
+	 *            Number of channels in the samples.
+	 * @param rate
+	 *            Sample rate of the samples.
+	 * @return Samples at the mixer's rate, left and right interleaved.
+	 */
+	static short[] convert(byte[] bytes, int frames, int channels, float rate) {
+		double step = rate / FORMAT.getSampleRate();
+		int length = (int) (frames / step);
+		short[] samples = new short[length * 2];
+		int right = channels > 1 ? 1 : 0;
+		for (int frame = 0; frame < length; frame++) {
+			// Straight line between the two nearest source frames.
+			double at = frame * step;
+			int first = (int) at;
+			int second = Math.min(first + 1, frames - 1);
+			double weight = at - first;
+			for (int side = 0; side < 2; side++) {
+				int channel = side == 0 ? 0 : right;
+				int a = sample(bytes, first * channels + channel);
+				int b = sample(bytes, second * channels + channel);
+				samples[frame * 2 + side] = (short) Math.round(a
+						+ (b - a) * weight);
+			}
+		}
+		return samples;
+	}
+
+	/**
+	 * Method to read one 16 bit little-endian sample.
+	 *
+	 * @param bytes
+	 *            Samples.
+	 * @param index
+	 *            Number of the sample.
+	 * @return The sample.
+	 */
+	private static int sample(byte[] bytes, int index) {
+		return (short) ((bytes[index * 2] & 0xFF) | bytes[index * 2 + 1] << 8);
+	}
+}
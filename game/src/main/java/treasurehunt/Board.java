@@ -0,0 +1,916 @@
+package treasurehunt;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.Stroke;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import javax.swing.JPanel;
+
+/**
+ * Class for the board of the game.
+ * 
+ * Keys are not acted on where they arrive. They are put on an input queue,
+ * and the simulation thread takes them, in order, at its next tick, along
+ * with moving the clock on. After each tick that changes the game a new
+ * snapshot of it is published, and the board is drawn from the latest
+ * snapshot, so drawing and the simulation never wait on each other.
+ * 
+ * Levels bigger than the window scroll, with the view following the player.
+ * Only the cells in view are drawn, with the parts that never move cached in
+ * chunks, so a frame costs the same however big the level is.
+ * 
+ * Adapted from zetcode.com
+ * 
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Board extends JPanel implements Commons {
+
+	/**
+	 * Background colour of the board.
+	 */
+	private static final Color BACKGROUND = new Color(250, 240, 170);
+	/**
+	 * Colour of the outline around deadlocked chests.
+	 */
+	private static final Color DEADLOCK = new Color(220, 0, 0);
+	/**
+	 * Width, in pixels, of the outline around deadlocked chests.
+	 */
+	private static final int DEADLOCK_LINE = 3;
+	/**
+	 * Pen for the outline around deadlocked chests.
+	 */
+	private static final BasicStroke DEADLOCK_STROKE = new BasicStroke(
+			DEADLOCK_LINE);
+
+	/**
+	 * Time, in milliseconds, a key is held before it starts repeating.
+	 */
+	public static final int KEY_DELAY = 250;
+	/**
+	 * Time, in milliseconds, between repeats of a held key.
+	 */
+	public static final int KEY_INTERVAL = 100;
+
+	/**
+	 * Flag on an input event for a key being let go rather than pressed.
+	 */
+	private static final int RELEASED = 8;
+	/**
+	 * Most time, in nanoseconds, between a key being let go and pressed again
+	 * for the pair to be taken as the system repeating the key. Some systems,
+	 * X11 among them, repeat a held key by letting it go and pressing it
+	 * again at once, far quicker than a player could.
+	 */
+	private static final long REPEAT_PAIR = 5000000L;
+	/**
+	 * Most input events waiting at once.
+	 */
+	private static final int QUEUE_SIZE = 256;
+
+	/**
+	 * Rules and state of the level being played.
+	 */
+	private Simulation simulation;
+	/**
+	 * Image drawn for each chest.
+	 */
+	private final Image chestImage = ImageCache.get(Treasure.IMAGE);
+	/**
+	 * Image drawn for the player.
+	 */
+	private final Image playerImage = ImageCache.get(Player.IMAGE);
+	/**
+	 * Background colour plus the trees, ships, water and goals, which never
+	 * move once a level is loaded, drawn a chunk at a time.
+	 */
+	private final ChunkCache chunks = new ChunkCache(BACKGROUND);
+	/**
+	 * Area being painted, kept to save making one each frame.
+	 */
+	private final Rectangle clip = new Rectangle();
+
+	/**
+	 * Latest snapshot of the game, drawn by the next frame.
+	 */
+	private volatile Snapshot snapshot;
+	/**
+	 * Snapshot the last frame was drawn from.
+	 */
+	private volatile Snapshot drawn;
+
+	/**
+	 * Clock, score and end game text.
+	 */
+	private Hud hud = new Hud();
+	/**
+	 * Frame time and input latency measurements.
+	 */
+	private FrameStats stats = new FrameStats();
+
+	/**
+	 * Boolean to check if a game loop draws the board instead of Swing.
+	 */
+	private volatile boolean activeRendering = false;
+
+	/**
+	 * Lock held while the game is changed, as the simulation thread changes
+	 * it and a new level or recording can be loaded from the event thread.
+	 * Drawing does not take it.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Key handler.
+	 */
+	private final MyKeyAdapter keys = new MyKeyAdapter();
+
+	/**
+	 * Keys waiting for the simulation thread, put there by the event thread.
+	 */
+	private final InputQueue input = new InputQueue(QUEUE_SIZE);
+	/**
+	 * Events taken from the input queue in one go.
+	 */
+	private final int[] events = new int[QUEUE_SIZE];
+	/**
+	 * Time, in nanoseconds, each event taken arrived.
+	 */
+	private final long[] eventTimes = new long[QUEUE_SIZE];
+	/**
+	 * Action of the key being held down, or 0 if none is.
+	 */
+	private int held;
+	/**
+	 * Time, in nanoseconds, the held key next repeats.
+	 */
+	private long repeatAt;
+	/**
+	 * Time, in milliseconds, a key is held before it starts repeating.
+	 */
+	private volatile int repeatDelay = KEY_DELAY;
+	/**
+	 * Time, in milliseconds, between repeats of a held key, or 0 if held
+	 * keys do not repeat.
+	 */
+	private volatile int repeatInterval = KEY_INTERVAL;
+	/**
+	 * Time, in nanoseconds, the oldest key acted on since the last snapshot
+	 * arrived, or 0.
+	 */
+	private long pendingInput;
+
+	/**
+	 * Recording of the keys pressed since the level was loaded.
+	 */
+	private Replay recording;
+
+	/**
+	 * Events of a recording being played back, or null if there is none.
+	 */
+	private Replay.Cursor playback;
+
+	/**
+	 * True if the playback cursor is on an event that has not happened yet.
+	 */
+	private boolean playbackPending;
+
+	/**
+	 * Action to run once the next frame has been drawn, or null.
+	 */
+	private volatile Runnable firstFrame;
+
+	long start;
+
+	long current;
+
+	long end;
+
+	long previous;
+
+	/**
+	 * Constructor for the board.
+	 */
+	public Board() {
+		this(new Level(levelOne));
+	}
+
+	/**
+	 * Constructor for a board playing a given level.
+	 * 
+	 * @param layout
+	 *            Layout of the level to play.
+	 */
+	public Board(Level layout) {
+		addKeyListener(keys);
+		addFocusListener(keys);
+		setFocusable(true);
+		initWorld(layout);
+	}
+
+	/**
+	 * Initializer for a level.
+	 * 
+	 * @param level
+	 *            String containing the level layout.
+	 */
+	public void initWorld(String level) {
+		initWorld(new Level(level));
+	}
+
+	/**
+	 * Initializer for a level that has already been laid out.
+	 * 
+	 * @param layout
+	 *            Layout of the level.
+	 */
+	public void initWorld(Level layout) {
+		synchronized (lock) {
+			simulation = new Simulation(layout);
+			recording = new Replay(layout);
+			playback = null;
+			held = 0;
+			pendingInput = 0;
+			// The new level's snapshot has the new layout, so the chunks of
+			// the static layer are drawn again as they come into view.
+			publish();
+		}
+	}
+
+	/**
+	 * Method to find the x coordinate of a cell.
+	 * 
+	 * @param layout
+	 *            Layout of the level.
+	 * @param index
+	 *            Index of the cell.
+	 * @return X coordinate, in pixels, of the cell.
+	 */
+	private static int cellX(Level layout, int index) {
+		return OFFSET + layout.getColumn(index) * SPRITE_WIDTH;
+	}
+
+	/**
+	 * Method to find the y coordinate of a cell.
+	 * 
+	 * @param layout
+	 *            Layout of the level.
+	 * @param index
+	 *            Index of the cell.
+	 * @return Y coordinate, in pixels, of the cell.
+	 */
+	private static int cellY(Level layout, int index) {
+		return OFFSET + layout.getRow(index) * SPRITE_WIDTH;
+	}
+
+	/**
+	 * Method to find where the view starts across the level. The view is
+	 * centred on the player, but never goes past the edge of the level, and
+	 * a level that fits does not scroll at all.
+	 * 
+	 * @param shown
+	 *            Snapshot being drawn.
+	 * @return X coordinate, in level pixels, of the left of the view.
+	 */
+	private int cameraX(Snapshot shown) {
+		Level layout = shown.getLevel();
+		// Never narrower than the frame the HUD is laid out for.
+		int view = Math.max(getWidth(), BOARD_WIDTH);
+		int span = OFFSET * 2 + layout.getColumns() * SPRITE_WIDTH;
+		if (span <= view || shown.getPlayer() < 0)
+			return 0;
+		int centre = cellX(layout, shown.getPlayer()) + SPRITE_WIDTH / 2;
+		return Math.max(0, Math.min(centre - view / 2, span - view));
+	}
+
+	/**
+	 * Method to find where the view starts down the level.
+	 * 
+	 * @param shown
+	 *            Snapshot being drawn.
+	 * @return Y coordinate, in level pixels, of the top of the view.
+	 */
+	private int cameraY(Snapshot shown) {
+		Level layout = shown.getLevel();
+		int view = Math.max(getHeight(), BOARD_HEIGHT);
+		int span = OFFSET * 2 + layout.getRows() * SPRITE_WIDTH;
+		if (span <= view || shown.getPlayer() < 0)
+			return 0;
+		int centre = cellY(layout, shown.getPlayer()) + SPRITE_WIDTH / 2;
+		return Math.max(0, Math.min(centre - view / 2, span - view));
+	}
+
+	/**
+	 * Method to stop the song once the game is over.
+	 */
+	private void endGame() {
+		SoundEffect.SONG.stoploop();
+	}
+
+	/**
+	 * Method to hand drawing over to a game loop, or back to Swing.
+	 * 
+	 * @param active
+	 *            True if a game loop will call render.
+	 */
+	public void setActiveRendering(boolean active) {
+		activeRendering = active;
+		setIgnoreRepaint(active);
+	}
+
+	/**
+	 * Mutator for how held keys repeat.
+	 * 
+	 * @param delay
+	 *            Time, in milliseconds, a key is held before it starts
+	 *            repeating.
+	 * @param interval
+	 *            Time, in milliseconds, between repeats, or 0 for a held key
+	 *            to act only once.
+	 */
+	public void setKeyRepeat(int delay, int interval) {
+		repeatDelay = Math.max(0, delay);
+		repeatInterval = Math.max(0, interval);
+	}
+
+	/**
+	 * Method for the simulation thread to advance the game by one tick. The
+	 * clock moves on, then the keys that arrived since the last tick are
+	 * acted on in the order they arrived, then a held key repeats if it is
+	 * due.
+	 * 
+	 * @param millis
+	 *            Time, in milliseconds, since the last tick.
+	 */
+	public void update(long millis) {
+		synchronized (lock) {
+			boolean ended = simulation.isFinished();
+			if (playback != null)
+				playBack(millis);
+			else
+				simulation.tick(millis);
+			takeInput();
+			repeatHeld();
+			if (!ended && simulation.isFinished())
+				endGame();
+			publish();
+		}
+	}
+
+	/**
+	 * Method to act on the keys waiting on the input queue. A key pressed
+	 * again while it is still held, or let go and pressed again straight
+	 * away, is the system repeating it, which is left to repeatHeld instead.
+	 */
+	private void takeInput() {
+		int count;
+		while ((count = input.drain(events, eventTimes)) > 0) {
+			for (int event = 0; event < count; event++) {
+				int action = events[event] & ~RELEASED;
+				if ((events[event] & RELEASED) != 0) {
+					if (action != 0 && action == held && event + 1 < count
+							&& events[event + 1] == action
+							&& eventTimes[event + 1] - eventTimes[event]
+									<= REPEAT_PAIR)
+						// Pass over the press too; the key is still held.
+						event++;
+					else if (action == 0 || action == held)
+						held = 0;
+				} else if (action != held) {
+					held = action;
+					repeatAt = eventTimes[event] + repeatDelay * 1000000L;
+					perform(action, eventTimes[event]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method to repeat the key being held, if it is due. Restarting is never
+	 * repeated.
+	 */
+	private void repeatHeld() {
+		int interval = repeatInterval;
+		if (held == 0 || held == Replay.RESTART || interval == 0)
+			return;
+		long now = System.nanoTime();
+		if (now < repeatAt)
+			return;
+		perform(held, 0);
+		repeatAt += interval * 1000000L;
+		// Do not save up repeats missed while the thread was held up.
+		if (repeatAt < now)
+			repeatAt = now + interval * 1000000L;
+	}
+
+	/**
+	 * Method to record an action and carry it out, unless the game is over
+	 * or a recording is being played back.
+	 * 
+	 * @param action
+	 *            A direction of movement, or Replay.UNDO, Replay.REDO or
+	 *            Replay.RESTART.
+	 * @param arrived
+	 *            Time, in nanoseconds, the key arrived, or 0 if the action
+	 *            was not from a key.
+	 */
+	private void perform(int action, long arrived) {
+		if (playback != null || simulation.isFinished())
+			return;
+		recording.record(Replay.elapsed(simulation), action);
+		if (act(action) && arrived != 0 && pendingInput == 0)
+			pendingInput = arrived;
+	}
+
+	/**
+	 * Method to carry out the events of the recording being played back that
+	 * fall in this tick, each at the game time it was recorded at.
+	 * 
+	 * @param millis
+	 *            Time, in milliseconds, since the last tick.
+	 */
+	private void playBack(long millis) {
+		long left = millis;
+		while (playbackPending && !simulation.isFinished()) {
+			long due = Math.max(0, playback.getTime()
+					- Replay.elapsed(simulation));
+			if (due > left)
+				break;
+			simulation.tick(due);
+			left -= due;
+			act(playback.getAction());
+			playbackPending = playback.next();
+		}
+		simulation.tick(left);
+		if (!playbackPending || simulation.isFinished())
+			playback = null;
+	}
+
+	/**
+	 * Method to carry out an action, from a key or from a recording.
+	 * 
+	 * @param action
+	 *            A direction of movement, or Replay.UNDO, Replay.REDO or
+	 *            Replay.RESTART.
+	 * @return True if anything changed, false otherwise.
+	 */
+	private boolean act(int action) {
+		if (action == Replay.UNDO) {
+			return simulation.undo() >= 0;
+		} else if (action == Replay.REDO) {
+			boolean deadlocked = simulation.isDeadlocked();
+			int step = simulation.redo();
+			if (step >= 0 && MoveLog.pushed(step))
+				pushed(deadlocked);
+			return step >= 0;
+		} else if (action == Replay.RESTART) {
+			restartLevel();
+			return true;
+		}
+		boolean deadlocked = simulation.isDeadlocked();
+		int result = simulation.move(action);
+		if (result == Simulation.PUSHED)
+			pushed(deadlocked);
+		return result != Simulation.BLOCKED;
+	}
+
+	/**
+	 * Method to play the sound for a push; a warning instead if the push
+	 * left the level unsolvable.
+	 * 
+	 * @param deadlocked
+	 *            True if the level was already deadlocked before the push.
+	 */
+	private void pushed(boolean deadlocked) {
+		if (!deadlocked && simulation.isDeadlocked())
+			SoundEffect.OHNO.play();
+		else
+			SoundEffect.PUSH.play();
+	}
+
+	/**
+	 * Method to restart the level. The simulation goes back to the state it
+	 * started in; nothing else is rebuilt.
+	 */
+	private void restartLevel() {
+		boolean ended = simulation.isFinished();
+		simulation.reset();
+		if (ended)
+			SoundEffect.SONG.playloop();
+	}
+
+	/**
+	 * Method to publish a snapshot of the game if it has changed since the
+	 * last one, and repaint the parts of the board that changed. Called with
+	 * the lock held.
+	 */
+	private void publish() {
+		Snapshot old = snapshot;
+		Level layout = simulation.getLevel();
+		if (old != null && old.getLevel() == layout
+				&& old.getHash() == simulation.getHash()
+				&& old.getScore() == simulation.getScore()
+				&& old.isFinished() == simulation.isFinished()
+				&& old.getTimeRemaining() / 1000 == simulation
+						.getTimeRemaining() / 1000) {
+			// Moves that cancelled out show nothing new.
+			pendingInput = 0;
+			return;
+		}
+
+		// Keys shown by a snapshot that was never drawn are shown by this
+		// one instead, and they arrived first.
+		long arrived = pendingInput;
+		if (old != null && old != drawn && old.getInput() != 0)
+			arrived = old.getInput();
+		pendingInput = 0;
+		Snapshot next = new Snapshot(simulation, arrived);
+		snapshot = next;
+
+		// A new level, the end game text or the view scrolling changes most
+		// of the board.
+		if (old == null || old.getLevel() != layout
+				|| old.isFinished() != next.isFinished()) {
+			repaintAll();
+			return;
+		}
+		int left = cameraX(next);
+		int top = cameraY(next);
+		if (left != cameraX(old) || top != cameraY(old)) {
+			repaintAll();
+			return;
+		}
+		if (old.getPlayer() != next.getPlayer()) {
+			repaintCell(layout, old.getPlayer(), left, top);
+			repaintCell(layout, next.getPlayer(), left, top);
+		}
+		// Walk both sets of chests in order, repainting the cells in one but
+		// not the other.
+		int before = old.nextChest(0);
+		int after = next.nextChest(0);
+		while (before >= 0 || after >= 0) {
+			if (before == after) {
+				before = old.nextChest(before + 1);
+				after = next.nextChest(after + 1);
+			} else if (after < 0 || (before >= 0 && before < after)) {
+				repaintCell(layout, before, left, top);
+				before = old.nextChest(before + 1);
+			} else {
+				repaintCell(layout, after, left, top);
+				after = next.nextChest(after + 1);
+			}
+		}
+		// Deadlocked chests are outlined, and the hint to undo shown.
+		if (old.getDeadlocked() != next.getDeadlocked()) {
+			for (int chest : old.getDeadlocked())
+				repaintCell(layout, chest, left, top);
+			for (int chest : next.getDeadlocked())
+				repaintCell(layout, chest, left, top);
+			if (old.getDeadlocked().length == 0
+					|| next.getDeadlocked().length == 0)
+				repaintArea(Hud.DEADLOCK_AREA);
+		}
+		if (old.getScore() != next.getScore())
+			repaintArea(Hud.SCORE_AREA);
+		if (old.getTimeRemaining() / 1000 != next.getTimeRemaining() / 1000) {
+			repaintArea(Hud.CLOCK_AREA);
+			// Keep the overlay figures moving while it is shown.
+			if (stats.isVisible())
+				repaintArea(FrameStats.AREA);
+		}
+	}
+
+	/**
+	 * Method to play a recording back in real time. The level is restarted
+	 * and the keys are ignored until the recording is over.
+	 * 
+	 * @param replay
+	 *            Recording of this level to play.
+	 */
+	public void playReplay(Replay replay) {
+		synchronized (lock) {
+			if (!replay.isFor(simulation.getLevel()))
+				throw new IllegalArgumentException(
+						"Replay is for a different level");
+			restartLevel();
+			playback = replay.cursor();
+			playbackPending = playback.next();
+			held = 0;
+			publish();
+		}
+	}
+
+	/**
+	 * Method to repaint the whole board, unless a game loop is drawing it.
+	 */
+	private void repaintAll() {
+		if (!activeRendering)
+			repaint();
+	}
+
+	/**
+	 * Method to repaint only the part of the board covered by one cell.
+	 * Chests and the player are drawn slightly inset, so the area is a
+	 * little larger than the cell.
+	 * 
+	 * @param layout
+	 *            Layout of the level.
+	 * @param index
+	 *            Index of the cell, or -1 for none.
+	 * @param left
+	 *            X coordinate, in level pixels, of the left of the view.
+	 * @param top
+	 *            Y coordinate, in level pixels, of the top of the view.
+	 */
+	private void repaintCell(Level layout, int index, int left, int top) {
+		if (activeRendering || index < 0)
+			return;
+		repaint(cellX(layout, index) - left, cellY(layout, index) - top,
+				SPRITE_WIDTH + 2, SPRITE_WIDTH + 2);
+	}
+
+	/**
+	 * Method to repaint only part of the board.
+	 * 
+	 * @param area
+	 *            Area of the board to repaint.
+	 */
+	private void repaintArea(Rectangle area) {
+		if (activeRendering)
+			return;
+		repaint(area.x, area.y, area.width, area.height);
+	}
+
+	/**
+	 * Paint method for java guis.
+	 * 
+	 * @param g
+	 *            Graphic object being painted.
+	 */
+	public void paint(Graphics g) {
+		super.paint(g);
+		render((Graphics2D) g);
+	}
+
+	/**
+	 * Method to draw the board from the latest snapshot. Called by paint, or
+	 * by the game loop when it is drawing the board itself.
+	 * 
+	 * @param g
+	 *            Graphic object being painted.
+	 */
+	public void render(Graphics2D g) {
+		Snapshot shown = snapshot;
+		stats.beginFrame();
+		if (shown != drawn && shown.getInput() != 0)
+			stats.inputReceived(shown.getInput());
+		renderSnapshot(g, shown);
+		drawn = shown;
+		stats.endFrame();
+		stats.paint(g);
+		Runnable listener = firstFrame;
+		if (listener != null) {
+			firstFrame = null;
+			listener.run();
+		}
+	}
+
+	/**
+	 * Mutator for the action to run once the first frame has been drawn.
+	 * 
+	 * @param listener
+	 *            Action to run after the next frame, once.
+	 */
+	public void setFirstFrameListener(Runnable listener) {
+		firstFrame = listener;
+	}
+
+	/**
+	 * Accessor for the frame stats.
+	 * 
+	 * @return Frame time and input latency measurements.
+	 */
+	public FrameStats getStats() {
+		return stats;
+	}
+
+	/**
+	 * Method to draw one snapshot of the game.
+	 * 
+	 * @param g
+	 *            Graphic object being painted.
+	 * @param shown
+	 *            Snapshot to draw.
+	 */
+	private void renderSnapshot(Graphics2D g, Snapshot shown) {
+		Level layout = shown.getLevel();
+		int left = cameraX(shown);
+		int top = cameraY(shown);
+
+		// Only the area being painted is drawn; all of the board unless
+		// Swing is painting just the cells that changed.
+		Rectangle area = clip;
+		area.setBounds(0, 0, getWidth(), getHeight());
+		g.getClipBounds(area);
+		g.setColor(BACKGROUND);
+		g.fillRect(area.x, area.y, area.width, area.height);
+		chunks.paint(g, layout, left, top, area.x, area.y, area.width,
+				area.height, isDisplayable() ? getGraphicsConfiguration()
+						: null);
+
+		// Draw the chests in the rows and columns in view, and the player,
+		// slightly inset in their cells.
+		int columns = layout.getColumns();
+		int firstColumn = Math.max(0, Math.floorDiv(left + area.x - OFFSET
+				- 2, SPRITE_WIDTH));
+		int lastColumn = Math.min(columns - 1, Math.floorDiv(left + area.x
+				+ area.width - 1 - OFFSET, SPRITE_WIDTH));
+		int firstRow = Math.max(0, Math.floorDiv(top + area.y - OFFSET - 2,
+				SPRITE_WIDTH));
+		int lastRow = Math.min(layout.getRows() - 1, Math.floorDiv(top
+				+ area.y + area.height - 1 - OFFSET, SPRITE_WIDTH));
+		for (int row = firstRow; row <= lastRow && firstColumn <= lastColumn; row++) {
+			int last = row * columns + lastColumn;
+			for (int chest = shown.nextChest(row * columns + firstColumn); chest >= 0
+					&& chest <= last; chest = shown.nextChest(chest + 1)) {
+				g.drawImage(chestImage, cellX(layout, chest) + 2 - left,
+						cellY(layout, chest) + 2 - top, this);
+			}
+		}
+		int[] deadlocked = shown.getDeadlocked();
+		if (deadlocked.length > 0) {
+			Stroke stroke = g.getStroke();
+			g.setColor(DEADLOCK);
+			g.setStroke(DEADLOCK_STROKE);
+			for (int chest : deadlocked) {
+				g.drawRect(cellX(layout, chest) + 2 + DEADLOCK_LINE / 2 - left,
+						cellY(layout, chest) + 2 + DEADLOCK_LINE / 2 - top,
+						SPRITE_WIDTH - DEADLOCK_LINE, SPRITE_WIDTH
+								- DEADLOCK_LINE);
+			}
+			g.setStroke(stroke);
+		}
+		int player = shown.getPlayer();
+		if (player >= 0) {
+			g.drawImage(playerImage, cellX(layout, player) + 2 - left,
+					cellY(layout, player) + 2 - top, this);
+		}
+
+		hud.paint(g, shown.getTimeRemaining(), shown.getScore(),
+				layout.getGoalCount(), shown.isFinished(),
+				shown.isOutOfTime(), deadlocked.length > 0);
+	}
+
+	/**
+	 * Custom key adapter class to act upon certain key actions. Keys that
+	 * change the game are only put on the input queue.
+	 * 
+	 * @author Rodney Earl
+	 * @version 1.0
+	 */
+	private class MyKeyAdapter extends KeyAdapter implements FocusListener {
+
+		/**
+		 * Method called whenever a key is pressed on the keyboard.
+		 * 
+		 * @param e
+		 *            Key pressed.
+		 */
+		public void keyPressed(KeyEvent e) {
+			long arrived = System.nanoTime();
+			int key = e.getKeyCode();
+
+			// F3 shows or hides the frame stats, F4 saves them.
+			if (key == KeyEvent.VK_F3) {
+				stats.toggle();
+				repaintArea(FrameStats.AREA);
+				return;
+			} else if (key == KeyEvent.VK_F4) {
+				exportStats();
+				return;
+			} else if (key == KeyEvent.VK_F5) {
+				saveReplay();
+				return;
+			}
+
+			int action = action(key);
+			if (action != 0)
+				input.offer(action, arrived);
+		}
+
+		/**
+		 * Method called whenever a key is let go.
+		 * 
+		 * @param e
+		 *            Key let go.
+		 */
+		public void keyReleased(KeyEvent e) {
+			int action = action(e.getKeyCode());
+			if (action != 0)
+				input.offer(action | RELEASED, System.nanoTime());
+		}
+
+		/**
+		 * Method called when the board gets the keyboard. Nothing to do.
+		 * 
+		 * @param e
+		 *            Focus event.
+		 */
+		public void focusGained(FocusEvent e) {
+		}
+
+		/**
+		 * Method called when the board loses the keyboard. No key will be
+		 * let go, so none is held any more.
+		 * 
+		 * @param e
+		 *            Focus event.
+		 */
+		public void focusLost(FocusEvent e) {
+			input.offer(RELEASED, System.nanoTime());
+		}
+
+		/**
+		 * Method to find the action for a key.
+		 * 
+		 * @param key
+		 *            Key code.
+		 * @return A direction of movement, Replay.UNDO, Replay.REDO or
+		 *         Replay.RESTART, or 0 if the key does nothing.
+		 */
+		private int action(int key) {
+			// Player has pressed the up key.
+			if (key == KeyEvent.VK_UP) {
+				return TOP_COLLISION;
+			}
+			// Player has pressed the right key.
+			else if (key == KeyEvent.VK_RIGHT) {
+				return RIGHT_COLLISION;
+			}
+			// Player has pressed the down key.
+			else if (key == KeyEvent.VK_DOWN) {
+				return BOTTOM_COLLISION;
+			}
+			// Player has pressed the left key.
+			else if (key == KeyEvent.VK_LEFT) {
+				return LEFT_COLLISION;
+			}
+			// Player has pressed the U key to take back a move.
+			else if (key == KeyEvent.VK_U) {
+				return Replay.UNDO;
+			}
+			// Player has pressed the Y key to make it again.
+			else if (key == KeyEvent.VK_Y) {
+				return Replay.REDO;
+			}
+			// Player has pressed the R key.
+			else if (key == KeyEvent.VK_R) {
+				return Replay.RESTART;
+			}
+			return 0;
+		}
+
+		/**
+		 * Method to save the recording of this session to a file in the
+		 * working directory.
+		 */
+		private void saveReplay() {
+			File file = new File("replay-" + System.currentTimeMillis()
+					+ ".thr");
+			try {
+				synchronized (lock) {
+					recording.write(file);
+				}
+				System.out.println("Replay saved to " + file.getAbsolutePath());
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		}
+
+		/**
+		 * Method to save the frame stats to a CSV file in the working
+		 * directory.
+		 */
+		private void exportStats() {
+			File file = new File("frame-stats-" + System.currentTimeMillis()
+					+ ".csv");
+			try {
+				stats.exportCsv(file);
+				System.out.println("Frame stats saved to "
+						+ file.getAbsolutePath());
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package treasurehunt;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class to cache the static layer of a level in square chunks of cells.
+ *
+ * The trees, water, ships and goals never move once a level is loaded, so
+ * each chunk is drawn once into an image of its own and that image is reused
+ * every frame. Only the chunks that the area being painted touches are drawn
+ * or looked at, so a frame costs the same however big the level is. Once
+ * there are more chunks than the cache holds, the one drawn least recently
+ * is dropped.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class ChunkCache implements Commons {
+
+	/**
+	 * Number of cells along each side of a chunk.
+	 */
+	public static final int CHUNK = 8;
+	/**
+	 * Number of pixels along each side of a chunk.
+	 */
+	public static final int CHUNK_PIXELS = CHUNK * SPRITE_WIDTH;
+	/**
+	 * Fewest chunk images kept.
+	 */
+	private static final int MIN_CAPACITY = 32;
+
+	/**
+	 * Colour behind the sprites.
+	 */
+	private final Color background;
+	/**
+	 * Image drawn for each tree.
+	 */
+	private final Image tree = ImageCache.get(Tree.IMAGE);
+	/**
+	 * Image drawn for each water block.
+	 */
+	private final Image water = ImageCache.get(Water.IMAGE);
+	/**
+	 * Image drawn for each ship.
+	 */
+	private final Image ship = ImageCache.get(Ship.IMAGE);
+	/**
+	 * Image drawn for each goal zone.
+	 */
+	private final Image goal = ImageCache.get(Goal.IMAGE);
+
+	/**
+	 * Most chunk images kept. Grows if a frame needs more than this.
+	 */
+	private int capacity = MIN_CAPACITY;
+	/**
+	 * Chunk images by chunk number, least recently drawn first.
+	 */
+	private final LinkedHashMap<Integer, Image> chunks = new LinkedHashMap<Integer, Image>(
+			MIN_CAPACITY, 0.75f, true) {
+		protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+			return size() > capacity;
+		}
+	};
+	/**
+	 * Level the chunk images are of.
+	 */
+	private Level level;
+
+	/**
+	 * Constructor for a chunk cache.
+	 *
+	 * @param background
+	 *            Colour behind the sprites.
+	 */
+	public ChunkCache(Color background) {
+		this.background = background;
+	}
+
+	/**
+	 * Method to draw the part of the static layer that is in view.
+	 *
+	 * @param g
+	 *            Graphic object being painted, in view coordinates.
+	 * @param layout
+	 *            Layout of the level.
+	 * @param left
+	 *            X coordinate, in level pixels, of the left of the view.
+	 * @param top
+	 *            Y coordinate, in level pixels, of the top of the view.
+	 * @param x
+	 *            X coordinate, in view pixels, of the area to paint.
+	 * @param y
+	 *            Y coordinate, in view pixels, of the area to paint.
+	 * @param width
+	 *            Width of the area to paint.
+	 * @param height
+	 *            Height of the area to paint.
+	 * @param config
+	 *            Configuration of the screen, to make images that draw
+	 *            quickly on it, or null if there is no screen.
+	 */
+	public void paint(Graphics g, Level layout, int left, int top, int x,
+			int y, int width, int height, GraphicsConfiguration config) {
+		if (layout != level) {
+			chunks.clear();
+			level = layout;
+		}
+		int chunkColumns = (layout.getColumns() + CHUNK - 1) / CHUNK;
+		int chunkRows = (layout.getRows() + CHUNK - 1) / CHUNK;
+
+		// Chunks covering the area, in level pixels.
+		int firstColumn = Math.max(0, Math.floorDiv(left + x - OFFSET,
+				CHUNK_PIXELS));
+		int lastColumn = Math.min(chunkColumns - 1, Math.floorDiv(left + x
+				+ width - 1 - OFFSET, CHUNK_PIXELS));
+		int firstRow = Math.max(0, Math.floorDiv(top + y - OFFSET,
+				CHUNK_PIXELS));
+		int lastRow = Math.min(chunkRows - 1, Math.floorDiv(top + y + height
+				- 1 - OFFSET, CHUNK_PIXELS));
+		if (firstColumn > lastColumn || firstRow > lastRow)
+			return;
+
+		// Keep at least two screens of chunks, so scrolling back and forth
+		// does not draw them over and over.
+		int inView = (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+		capacity = Math.max(capacity, inView * 2);
+
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				Integer key = row * chunkColumns + column;
+				Image chunk = chunks.get(key);
+				if (chunk == null) {
+					chunk = renderChunk(layout, column, row, config);
+					chunks.put(key, chunk);
+				}
+				g.drawImage(chunk, OFFSET + column * CHUNK_PIXELS - left,
+						OFFSET + row * CHUNK_PIXELS - top, null);
+			}
+		}
+	}
+
+	/**
+	 * Method to draw one chunk of the static layer into a new image.
+	 *
+	 * @param layout
+	 *            Layout of the level.
+	 * @param column
+	 *            Column of the chunk.
+	 * @param row
+	 *            Row of the chunk.
+	 * @param config
+	 *            Configuration of the screen, or null if there is none.
+	 * @return Image of the chunk.
+	 */
+	private Image renderChunk(Level layout, int column, int row,
+			GraphicsConfiguration config) {
+		BufferedImage image = config == null ? new BufferedImage(
+				CHUNK_PIXELS, CHUNK_PIXELS, BufferedImage.TYPE_INT_RGB)
+				: config.createCompatibleImage(CHUNK_PIXELS, CHUNK_PIXELS);
+		Graphics g = image.getGraphics();
+		g.setColor(background);
+		g.fillRect(0, 0, CHUNK_PIXELS, CHUNK_PIXELS);
+		int lastColumn = Math.min(layout.getColumns(), (column + 1) * CHUNK);
+		int lastRow = Math.min(layout.getRows(), (row + 1) * CHUNK);
+		for (int cellRow = row * CHUNK; cellRow < lastRow; cellRow++) {
+			for (int cellColumn = column * CHUNK; cellColumn < lastColumn; cellColumn++) {
+				Image sprite = spriteFor(layout.getCell(cellColumn + cellRow
+						* layout.getColumns()));
+				if (sprite != null)
+					g.drawImage(sprite, (cellColumn - column * CHUNK)
+							* SPRITE_WIDTH, (cellRow - row * CHUNK)
+							* SPRITE_WIDTH, null);
+			}
+		}
+		g.dispose();
+		return image;
+	}
+
+	/**
+	 * Method to find the image of whatever never moves in a cell.
+	 *
+	 * @param cell
+	 *            Flags of the cell.
+	 * @return Image for the cell, or null if nothing is drawn there.
+	 */
+	private Image spriteFor(int cell) {
+		if ((cell & TREE_CELL) != 0)
+			return tree;
+		if ((cell & WATER_CELL) != 0)
+			return water;
+		if ((cell & SHIP_CELL) != 0)
+			return ship;
+		if ((cell & GOAL_CELL) != 0)
+			return goal;
+		return null;
+	}
+
+	/**
+	 * Accessor for the number of chunk images kept.
+	 *
+	 * @return Number of chunks drawn and not yet dropped.
+	 */
+	public int size() {
+		return chunks.size();
+	}
+}
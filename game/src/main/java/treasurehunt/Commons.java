@@ -1,3 +1,4 @@
+package treasurehunt;
 
 /**
  * Interface to hold common constants.
@@ -37,6 +38,26 @@ public interface Commons {
 	 * Number for left collisions.
 	 */
 	public static final int LEFT_COLLISION = 4;
+	/**
+	 * Cell flag for a tree.
+	 */
+	public static final byte TREE_CELL = 1;
+	/**
+	 * Cell flag for water.
+	 */
+	public static final byte WATER_CELL = 2;
+	/**
+	 * Cell flag for a ship.
+	 */
+	public static final byte SHIP_CELL = 4;
+	/**
+	 * Cell flag for a goal zone.
+	 */
+	public static final byte GOAL_CELL = 8;
+	/**
+	 * Cell flag for a treasure chest.
+	 */
+	public static final byte CHEST_CELL = 16;
 	/**
 	 * Time, in milliseconds, that a level can run.
 	 */
@@ -0,0 +1,383 @@
+package treasurehunt;
+
+import java.util.Arrays;
+
+/**
+ * Class to spot chests that can never reach a goal zone, while a level is
+ * played.
+ *
+ * The dead cells are those of the level: a cell is dead if no goal zone can
+ * be reached from it by pushing, even with the rest of the level empty. After
+ * each push the chest that moved is checked for three
+ * kinds of deadlock, each only looking at the cells around it:
+ * <ul>
+ * <li>it is on a dead cell;</li>
+ * <li>it is frozen, along with any chests holding it in place, and one of
+ * them is off a goal zone;</li>
+ * <li>it is frozen on a goal zone and seals off an area the player can never
+ * get back into, with an empty goal zone or a chest off a goal zone inside.</li>
+ * </ul>
+ * Chests that are deadlocked stay deadlocked however they are pushed after,
+ * so only undo or a restart can clear them; those check the whole level
+ * again.
+ *
+ * Deadlocks are only looked for when there are as many chests as goal zones.
+ * With spare chests a chest can be left anywhere.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Deadlocks implements Commons {
+
+	/**
+	 * Most cells looked at to decide if an area is sealed off.
+	 */
+	private static final int MAX_AREA = 4096;
+	/**
+	 * Most chests looked at to decide if a chest is frozen.
+	 */
+	private static final int MAX_GROUP = 256;
+	/**
+	 * Cells of deadlocked chests when there are none.
+	 */
+	private static final int[] NONE = new int[0];
+
+	/**
+	 * Layout of the level.
+	 */
+	private final Level level;
+	/**
+	 * Boolean to check if deadlocks are looked for at all.
+	 */
+	private final boolean active;
+	/**
+	 * Cells of the chests found to be deadlocked. Replaced, never changed,
+	 * so it can be handed out.
+	 */
+	private int[] stuck = NONE;
+	/**
+	 * Cells with a deadlocked chest on them.
+	 */
+	private final boolean[] stuckCells;
+
+	/**
+	 * Chests treated as walls by the freeze check, marked with the current
+	 * check number.
+	 */
+	private final int[] frozen;
+	private int freezeCheck;
+	/**
+	 * Cells reached by the area check, marked with the number of the area.
+	 * Numbers start at 1, so no cell is marked to begin with.
+	 */
+	private final int[] reached;
+	private int areaCheck;
+	/**
+	 * Chests held in place by the freeze check in progress.
+	 */
+	private final int[] group;
+	private int groupSize;
+	/**
+	 * Cells waiting to be looked at by a search.
+	 */
+	private final int[] queue;
+
+	/**
+	 * Constructor for the deadlocks of a level.
+	 *
+	 * @param level
+	 *            Layout of the level.
+	 */
+	public Deadlocks(Level level) {
+		this.level = level;
+		int size = level.getSize();
+		active = level.getChestCount() == level.getGoalCount();
+		// The rest is only needed if deadlocks are looked for.
+		int cells = active ? size : 0;
+		stuckCells = new boolean[cells];
+		frozen = new int[cells];
+		reached = new int[cells];
+		group = new int[Math.min(level.getChestCount(), MAX_GROUP)];
+		queue = new int[cells];
+	}
+
+	/**
+	 * Accessor for the deadlocked chests.
+	 *
+	 * @return Cells of the chests found to be deadlocked, in the order they
+	 *         were found. Not to be changed.
+	 */
+	public int[] getStuck() {
+		return stuck;
+	}
+
+	/**
+	 * Method to check if any chest is deadlocked.
+	 *
+	 * @return True if the level can no longer be solved, false otherwise.
+	 */
+	public boolean isDeadlocked() {
+		return stuck.length > 0;
+	}
+
+	/**
+	 * Method to look for deadlocks after a push.
+	 *
+	 * @param state
+	 *            State after the push.
+	 * @param from
+	 *            Cell the chest was pushed from.
+	 * @param to
+	 *            Cell the chest was pushed to.
+	 */
+	public void pushed(State state, int from, int to) {
+		if (!active)
+			return;
+		// A deadlocked chest that moves is still deadlocked. A frozen chest
+		// can only move onto a dead cell, and from a dead cell a chest can
+		// only be pushed onto another.
+		if (stuckCells[from]) {
+			int[] moved = stuck.clone();
+			for (int chest = 0; chest < moved.length; chest++) {
+				if (moved[chest] == from)
+					moved[chest] = to;
+			}
+			stuckCells[from] = false;
+			stuckCells[to] = true;
+			stuck = moved;
+			return;
+		}
+		check(state, to);
+	}
+
+	/**
+	 * Method to look for deadlocks over the whole level, after an undo or a
+	 * restart.
+	 *
+	 * @param state
+	 *            State to check.
+	 */
+	public void scan(State state) {
+		for (int chest : stuck)
+			stuckCells[chest] = false;
+		stuck = NONE;
+		if (!active)
+			return;
+		for (int chest = state.nextChest(0); chest >= 0; chest = state
+				.nextChest(chest + 1)) {
+			if (!stuckCells[chest])
+				check(state, chest);
+		}
+	}
+
+	/**
+	 * Method to check one chest, adding it and any chests deadlocked with it
+	 * to the stuck chests.
+	 *
+	 * @param state
+	 *            Where the player and chests are.
+	 * @param chest
+	 *            Cell of the chest.
+	 */
+	private void check(State state, int chest) {
+		if (level.isDead(chest)) {
+			addStuck(chest);
+			return;
+		}
+		freezeCheck++;
+		groupSize = 0;
+		if (!isFrozen(state, chest))
+			return;
+		boolean offGoal = false;
+		for (int member = 0; member < groupSize; member++) {
+			if (!level.isGoal(group[member]))
+				offGoal = true;
+		}
+		if (offGoal) {
+			for (int member = 0; member < groupSize; member++)
+				addStuck(group[member]);
+			return;
+		}
+		checkSealed(state);
+	}
+
+	/**
+	 * Method to check if a chest can never be pushed again. A chest is
+	 * frozen if it is held in place both across and up and down, by walls,
+	 * by dead cells on both sides or by other frozen chests. While a chest
+	 * is being checked it counts as a wall, so chests holding each other in
+	 * place are all frozen.
+	 *
+	 * @param state
+	 *            Where the player and chests are.
+	 * @param chest
+	 *            Cell of the chest.
+	 * @return True if the chest is frozen, false otherwise or if too many
+	 *         chests are involved to tell. The frozen chests are left in the
+	 *         group.
+	 */
+	private boolean isFrozen(State state, int chest) {
+		if (groupSize == group.length)
+			return false;
+		int mark = groupSize;
+		frozen[chest] = freezeCheck;
+		group[groupSize++] = chest;
+		if (isHeld(state, chest, LEFT_COLLISION, RIGHT_COLLISION)
+				&& isHeld(state, chest, TOP_COLLISION, BOTTOM_COLLISION))
+			return true;
+		// Chests found frozen because this one was taken to be a wall are
+		// not frozen after all.
+		for (int member = mark; member < groupSize; member++)
+			frozen[group[member]] = 0;
+		groupSize = mark;
+		return false;
+	}
+
+	/**
+	 * Method to check if a chest can not be pushed along one axis.
+	 *
+	 * @param state
+	 *            Where the player and chests are.
+	 * @param chest
+	 *            Cell of the chest.
+	 * @param one
+	 *            Direction along the axis.
+	 * @param other
+	 *            Opposite direction.
+	 * @return True if the chest is held in place along the axis, false
+	 *         otherwise.
+	 */
+	private boolean isHeld(State state, int chest, int one, int other) {
+		int first = level.neighbour(chest, one);
+		int second = level.neighbour(chest, other);
+		if (isWall(first) || isWall(second))
+			return true;
+		// Pushing either way would only put it on a dead cell.
+		if (level.isDead(first) && level.isDead(second))
+			return true;
+		return (state.hasChest(first) && isFrozen(state, first))
+				|| (state.hasChest(second) && isFrozen(state, second));
+	}
+
+	/**
+	 * Method to check if a cell stops a chest; a wall, the edge of the
+	 * level or a chest taken to be a wall by the freeze check.
+	 *
+	 * @param index
+	 *            Index of the cell, or -1 past the edge.
+	 * @return True if a chest can not be pushed onto the cell, false
+	 *         otherwise.
+	 */
+	private boolean isWall(int index) {
+		return index < 0 || level.isBlocked(index)
+				|| frozen[index] == freezeCheck;
+	}
+
+	/**
+	 * Method to check if the frozen group seals off an area the player can
+	 * not reach. Nothing inside can ever move again, so an empty goal zone
+	 * or a chest off a goal zone there can never be fixed. Other chests are
+	 * taken to be able to move, so an area is only found sealed if walls and
+	 * the group alone close it off.
+	 *
+	 * @param state
+	 *            Where the player and chests are.
+	 */
+	private void checkSealed(State state) {
+		int player = state.getPlayer();
+		int members = groupSize;
+		// Number of the first area found to hold the player; any area that
+		// runs into it holds the player too.
+		int open = -1;
+		for (int member = 0; member < members; member++) {
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int start = level.neighbour(group[member], direction);
+				if (isWall(start) || reached[start] == open)
+					continue;
+				int end = fillArea(start, player, open);
+				if (end == 0 && open < 0)
+					open = areaCheck;
+				if (end > 0 && isHopeless(state, end)) {
+					for (int chest = 0; chest < members; chest++)
+						addStuck(group[chest]);
+					for (int cell = 0; cell < end; cell++) {
+						if (state.hasChest(queue[cell]))
+							addStuck(queue[cell]);
+					}
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Method to find the area around a cell, bounded by walls and the frozen
+	 * group. The cells are left at the front of the queue.
+	 *
+	 * @param start
+	 *            Cell to start from.
+	 * @param player
+	 *            Cell the player is on.
+	 * @param open
+	 *            Number of an area already found to hold the player, or -1.
+	 * @return Number of cells in the area, 0 if it holds the player, or -1
+	 *         if it is too big to look at.
+	 */
+	private int fillArea(int start, int player, int open) {
+		areaCheck++;
+		int head = 0;
+		int tail = 0;
+		reached[start] = areaCheck;
+		queue[tail++] = start;
+		while (head < tail) {
+			int cell = queue[head++];
+			if (cell == player)
+				return 0;
+			if (tail > MAX_AREA)
+				return -1;
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int next = level.neighbour(cell, direction);
+				if (isWall(next) || reached[next] == areaCheck)
+					continue;
+				if (reached[next] == open)
+					return 0;
+				reached[next] = areaCheck;
+				queue[tail++] = next;
+			}
+		}
+		return tail;
+	}
+
+	/**
+	 * Method to check if a sealed area has anything in it that is not done.
+	 *
+	 * @param state
+	 *            Where the player and chests are.
+	 * @param cells
+	 *            Number of cells in the area, at the front of the queue.
+	 * @return True if the area has an empty goal zone or a chest off a goal
+	 *         zone, false otherwise.
+	 */
+	private boolean isHopeless(State state, int cells) {
+		for (int cell = 0; cell < cells; cell++) {
+			int index = queue[cell];
+			if (level.isGoal(index) != state.hasChest(index))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Method to add a chest to the stuck chests, once.
+	 *
+	 * @param chest
+	 *            Cell of the chest.
+	 */
+	private void addStuck(int chest) {
+		if (stuckCells[chest])
+			return;
+		stuckCells[chest] = true;
+		stuck = Arrays.copyOf(stuck, stuck.length + 1);
+		stuck[stuck.length - 1] = chest;
+	}
+}
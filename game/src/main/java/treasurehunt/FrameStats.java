@@ -0,0 +1,389 @@
+package treasurehunt;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Class to measure how the board is drawn.
+ *
+ * Keeps histograms of how long each frame takes to draw and how long it takes
+ * from a key being handled to the frame that shows it, counts frames per
+ * second and measures what each frame allocates. Recent frames can be written
+ * out as CSV, and the figures can be drawn over the board. Frames are
+ * recorded by whichever thread draws the board, and may be written out from
+ * another, so both hold the lock of the stats while they use the history.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class FrameStats {
+
+	/**
+	 * Area of the board covered by the overlay.
+	 */
+	public static final Rectangle AREA = new Rectangle(70, 70, 400, 110);
+
+	/**
+	 * Number of recent frames kept for exporting.
+	 */
+	private static final int HISTORY = 4096;
+	/**
+	 * Time, in nanoseconds, between updates of the overlay text.
+	 */
+	private static final long REFRESH = 500000000L;
+	/**
+	 * Font for the overlay.
+	 */
+	private static final Font FONT = new Font("Monospaced", Font.BOLD, 14);
+	/**
+	 * Colour behind the overlay text.
+	 */
+	private static final Color SHADE = new Color(0, 0, 0, 170);
+
+	/**
+	 * Thread bean that can count allocated bytes, or null if this JVM can
+	 * not.
+	 */
+	private final com.sun.management.ThreadMXBean threads;
+
+	/**
+	 * Time each frame took to draw, in microseconds.
+	 */
+	private final Histogram paintTimes = new Histogram();
+	/**
+	 * Time from a key to the frame showing it, in microseconds.
+	 */
+	private final Histogram latencies = new Histogram();
+
+	/**
+	 * When each recent frame finished, in nanoseconds.
+	 */
+	private final long[] frameTimes = new long[HISTORY];
+	/**
+	 * How long each recent frame took to draw, in nanoseconds.
+	 */
+	private final long[] paintHistory = new long[HISTORY];
+	/**
+	 * Bytes each recent frame allocated, or -1 if unknown.
+	 */
+	private final long[] allocHistory = new long[HISTORY];
+	/**
+	 * Input latency shown by each recent frame, in nanoseconds, or -1 if the
+	 * frame showed no input.
+	 */
+	private final long[] latencyHistory = new long[HISTORY];
+	/**
+	 * Number of frames measured.
+	 */
+	private long frames;
+
+	/**
+	 * Time, in nanoseconds, the current frame started.
+	 */
+	private long frameStart;
+	/**
+	 * Bytes allocated by the drawing thread when the current frame started.
+	 */
+	private long allocStart;
+	/**
+	 * Time, in nanoseconds, of the oldest key not shown yet, or 0.
+	 */
+	private long pendingInput;
+
+	/**
+	 * Start of the current frames per second count.
+	 */
+	private long secondStart;
+	/**
+	 * Frames counted in the current second.
+	 */
+	private int secondFrames;
+	/**
+	 * Frames drawn in the last full second.
+	 */
+	private int fps;
+
+	/**
+	 * Boolean to check if the overlay is shown.
+	 */
+	private boolean visible = false;
+	/**
+	 * Time, in nanoseconds, the overlay text was last updated.
+	 */
+	private long lastRefresh;
+	/**
+	 * Lines of overlay text.
+	 */
+	private final String[] lines = new String[4];
+
+	/**
+	 * Constructor for the frame stats.
+	 */
+	public FrameStats() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory
+				.getThreadMXBean();
+		com.sun.management.ThreadMXBean counting = null;
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			counting = (com.sun.management.ThreadMXBean) bean;
+			if (!counting.isThreadAllocatedMemorySupported())
+				counting = null;
+			else
+				counting.setThreadAllocatedMemoryEnabled(true);
+		}
+		threads = counting;
+		for (int line = 0; line < lines.length; line++)
+			lines[line] = "";
+	}
+
+	/**
+	 * Method to record that a key changed the game, so the next frame shows
+	 * it.
+	 *
+	 * @param arrived
+	 *            Time, in nanoseconds, the key was received.
+	 */
+	public void inputReceived(long arrived) {
+		if (pendingInput == 0)
+			pendingInput = arrived;
+	}
+
+	/**
+	 * Method called before a frame is drawn.
+	 */
+	public void beginFrame() {
+		frameStart = System.nanoTime();
+		allocStart = threads == null ? 0 : threads
+				.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * Method called after a frame is drawn.
+	 */
+	public synchronized void endFrame() {
+		long now = System.nanoTime();
+		long alloc = threads == null ? -1 : threads
+				.getCurrentThreadAllocatedBytes() - allocStart;
+		long paint = now - frameStart;
+		long latency = -1;
+		if (pendingInput != 0) {
+			latency = now - pendingInput;
+			pendingInput = 0;
+			latencies.record(latency / 1000);
+		}
+		paintTimes.record(paint / 1000);
+
+		int slot = (int) (frames % HISTORY);
+		frameTimes[slot] = now;
+		paintHistory[slot] = paint;
+		allocHistory[slot] = alloc;
+		latencyHistory[slot] = latency;
+		frames++;
+
+		if (secondStart == 0)
+			secondStart = now;
+		secondFrames++;
+		if (now - secondStart >= 1000000000L) {
+			fps = secondFrames;
+			secondFrames = 0;
+			secondStart = now;
+		}
+	}
+
+	/**
+	 * Method to show or hide the overlay.
+	 */
+	public void toggle() {
+		visible = !visible;
+		lastRefresh = 0;
+	}
+
+	/**
+	 * Method to check if the overlay is shown.
+	 *
+	 * @return True if the overlay is shown, false otherwise.
+	 */
+	public boolean isVisible() {
+		return visible;
+	}
+
+	/**
+	 * Method to draw the overlay, if it is shown. The text is only rebuilt
+	 * twice a second.
+	 *
+	 * @param g
+	 *            Graphic object being painted.
+	 */
+	public void paint(Graphics2D g) {
+		if (!visible)
+			return;
+		long now = System.nanoTime();
+		if (now - lastRefresh >= REFRESH) {
+			lastRefresh = now;
+			int slot = (int) ((frames + HISTORY - 1) % HISTORY);
+			lines[0] = "fps " + fps + "   frames " + frames;
+			lines[1] = "paint us  p50 " + paintTimes.percentile(0.5)
+					+ "  p99 " + paintTimes.percentile(0.99) + "  max "
+					+ paintTimes.getMax();
+			lines[2] = "input us  p50 " + latencies.percentile(0.5)
+					+ "  p99 " + latencies.percentile(0.99) + "  max "
+					+ latencies.getMax();
+			lines[3] = "alloc/frame "
+					+ (frames == 0 || allocHistory[slot] < 0 ? "n/a"
+							: allocHistory[slot] + " B") + "   F4 saves CSV";
+		}
+		g.setColor(SHADE);
+		g.fillRect(AREA.x, AREA.y, AREA.width, AREA.height);
+		g.setColor(Color.WHITE);
+		g.setFont(FONT);
+		for (int line = 0; line < lines.length; line++)
+			g.drawString(lines[line], AREA.x + 10, AREA.y + 25 + line * 24);
+	}
+
+	/**
+	 * Method to write the recent frames out as CSV.
+	 *
+	 * @param file
+	 *            File to write to.
+	 * @throws IOException
+	 *             If the file can not be written.
+	 */
+	public void exportCsv(File file) throws IOException {
+		// Copy the history so frames can go on being drawn while the file
+		// is written.
+		long last;
+		long[] times;
+		long[] paints;
+		long[] allocs;
+		long[] inputs;
+		synchronized (this) {
+			last = frames;
+			times = frameTimes.clone();
+			paints = paintHistory.clone();
+			allocs = allocHistory.clone();
+			inputs = latencyHistory.clone();
+		}
+		PrintWriter out = new PrintWriter(new FileWriter(file));
+		try {
+			out.println("frame,time_ms,paint_us,alloc_bytes,input_latency_us");
+			long first = Math.max(0, last - HISTORY);
+			long origin = times[(int) (first % HISTORY)];
+			for (long frame = first; frame < last; frame++) {
+				int slot = (int) (frame % HISTORY);
+				out.print(frame);
+				out.print(',');
+				out.print((times[slot] - origin) / 1000000.0);
+				out.print(',');
+				out.print(paints[slot] / 1000);
+				out.print(',');
+				out.print(allocs[slot] < 0 ? "" : Long.toString(allocs[slot]));
+				out.print(',');
+				out.println(inputs[slot] < 0 ? "" : Long
+						.toString(inputs[slot] / 1000));
+			}
+		} finally {
+			out.close();
+		}
+		if (out.checkError())
+			throw new IOException("Could not write " + file);
+	}
+
+	/**
+	 * Histogram of values with about six percent precision. Buckets are
+	 * sixteen to each power of two, so recording never allocates.
+	 */
+	static final class Histogram {
+
+		/**
+		 * Count of values in each bucket.
+		 */
+		private final long[] counts = new long[64 * 16];
+		/**
+		 * Number of values recorded.
+		 */
+		private long total;
+		/**
+		 * Largest value recorded.
+		 */
+		private long max;
+
+		/**
+		 * Method to record a value.
+		 *
+		 * @param value
+		 *            Value to record; negative values count as 0.
+		 */
+		void record(long value) {
+			if (value < 0)
+				value = 0;
+			counts[bucket(value)]++;
+			total++;
+			if (value > max)
+				max = value;
+		}
+
+		/**
+		 * Method to find a percentile of the values recorded.
+		 *
+		 * @param fraction
+		 *            Percentile as a fraction, such as 0.99.
+		 * @return Lowest value of the bucket holding the percentile, or 0 if
+		 *         nothing was recorded.
+		 */
+		long percentile(double fraction) {
+			if (total == 0)
+				return 0;
+			long target = Math.max(1, (long) Math.ceil(fraction * total));
+			long seen = 0;
+			for (int bucket = 0; bucket < counts.length; bucket++) {
+				seen += counts[bucket];
+				if (seen >= target)
+					return Math.min(lowest(bucket), max);
+			}
+			return max;
+		}
+
+		/**
+		 * Accessor for the largest value recorded.
+		 *
+		 * @return Largest value.
+		 */
+		long getMax() {
+			return max;
+		}
+
+		/**
+		 * Method to find the bucket of a value.
+		 *
+		 * @param value
+		 *            Value, at least 0.
+		 * @return Index of the bucket.
+		 */
+		static int bucket(long value) {
+			if (value < 16)
+				return (int) value;
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			return (exponent - 3) * 16 + (int) (value >>> (exponent - 4)) - 16;
+		}
+
+		/**
+		 * Method to find the lowest value of a bucket.
+		 *
+		 * @param bucket
+		 *            Index of the bucket.
+		 * @return Lowest value that falls in it.
+		 */
+		static long lowest(int bucket) {
+			if (bucket < 16)
+				return bucket;
+			int exponent = bucket / 16 + 3;
+			return (long) (bucket % 16 + 16) << (exponent - 4);
+		}
+	}
+}
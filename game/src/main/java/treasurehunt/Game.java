@@ -0,0 +1,284 @@
+package treasurehunt;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Class to run the game.
+ * 
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Game extends JFrame implements Commons {
+
+	/**
+	 * Board being played, or null while the images are loading.
+	 */
+	private Board board;
+	/**
+	 * Loader decoding the images and sounds.
+	 */
+	private final AssetLoader assets;
+	/**
+	 * Panel showing how much has loaded, until the board replaces it.
+	 */
+	private LoadingPanel loading;
+	/**
+	 * Actions to run once the board is shown.
+	 */
+	private final List<Runnable> ready = new ArrayList<Runnable>();
+	/**
+	 * Time, in nanoseconds, the game was created.
+	 */
+	private final long created = System.nanoTime();
+
+	/**
+	 * Constructor for the game.
+	 */
+	public Game() {
+		this(new Level(levelOne));
+	}
+
+	/**
+	 * Constructor for the game playing a given level. The frame shows how
+	 * much has loaded until the images are decoded, then the level starts.
+	 * The sounds start once they are decoded too. If the images can not be
+	 * decoded the game says why and exits.
+	 * 
+	 * @param level
+	 *            Layout of the level to play.
+	 */
+	public Game(Level level) {
+		//Start decoding the images and sounds in the background.
+		assets = new AssetLoader();
+		SoundEffect.setVolume(SoundEffect.Volume.LOW);
+		//Show the progress until the board is ready.
+		loading = new LoadingPanel(assets);
+		add(loading, BorderLayout.CENTER);
+		//Set JFrame attributes.
+		setTitle("Treasure Hunt");
+		setSize(BOARD_WIDTH, BOARD_HEIGHT);
+		setLocationRelativeTo(null);
+		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		setResizable(false);
+
+		assets.whenImagesReady(() -> SwingUtilities
+				.invokeLater(() -> showBoard(level)));
+		assets.whenImagesFailed(error -> SwingUtilities
+				.invokeLater(() -> showFailure(error)));
+		//Start sounds.
+		assets.whenSoundsReady(() -> {
+			System.out.println("Sounds ready in " + assets.getSoundsMillis()
+					+ " ms");
+			SoundEffect.SONG.playloop();
+		});
+	}
+
+	/**
+	 * Method to swap the progress panel for the board, once the images are
+	 * decoded.
+	 * 
+	 * @param level
+	 *            Layout of the level to play.
+	 */
+	private void showBoard(Level level) {
+		//Initialize the board and start simulating it.
+		board = new Board(level);
+		board.setFirstFrameListener(this::reportStartup);
+		new SimulationLoop(board).start();
+		//Add board to the JFrame.
+		loading.stop();
+		remove(loading);
+		loading = null;
+		add(board, BorderLayout.CENTER);
+		revalidate();
+		board.requestFocusInWindow();
+		for (Runnable action : ready)
+			action.run();
+		ready.clear();
+	}
+
+	/**
+	 * Method to report that the images could not be decoded, then exit.
+	 * 
+	 * @param error
+	 *            Reason an image failed.
+	 */
+	private void showFailure(Throwable error) {
+		error.printStackTrace();
+		loading.stop();
+		JOptionPane.showMessageDialog(this,
+				"The game's images could not be loaded:\n" + error,
+				"Treasure Hunt", JOptionPane.ERROR_MESSAGE);
+		System.exit(1);
+	}
+
+	/**
+	 * Method to print how long the game took to start, once the board has
+	 * drawn its first frame and takes keys.
+	 */
+	private void reportStartup() {
+		long now = System.nanoTime();
+		long sinceLaunch = System.currentTimeMillis()
+				- ManagementFactory.getRuntimeMXBean().getStartTime();
+		System.out.println("Images ready in " + assets.getImagesMillis()
+				+ " ms, first interactive frame " + (now - created) / 1000000
+				+ " ms after the game was created, " + sinceLaunch
+				+ " ms after the JVM started");
+	}
+
+	/**
+	 * Method to run something on the event thread once the board is shown.
+	 * 
+	 * @param action
+	 *            Action to run.
+	 */
+	public void whenReady(Runnable action) {
+		SwingUtilities.invokeLater(() -> {
+			if (board != null)
+				action.run();
+			else
+				ready.add(action);
+		});
+	}
+
+	/**
+	 * Accessor for the board.
+	 * 
+	 * @return Board being played, or null while the images are loading.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Main method to run the game.
+	 * 
+	 * @param args
+	 *            Any extra arguments passed to the program. "--active" to
+	 *            draw from a game loop instead of Swing, "--pack file
+	 *            number" to play a level from a level pack, "--xsb file
+	 *            number" to play a level from a .xsb or .sok collection,
+	 *            "--replay file" to play back a recording of the level,
+	 *            "--repeat delay interval" to set how held keys repeat, in
+	 *            milliseconds, with an interval of 0 for no repeating.
+	 * @throws IOException
+	 *             If the level or recording can not be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		Level level = new Level(levelOne);
+		boolean active = false;
+		Replay replay = null;
+		int delay = Board.KEY_DELAY;
+		int interval = Board.KEY_INTERVAL;
+		for (int arg = 0; arg < args.length; arg++) {
+			if (args[arg].equals("--active"))
+				active = true;
+			else if (args[arg].equals("--pack") && arg + 2 < args.length) {
+				LevelPack pack = new LevelPack(new File(args[arg + 1]));
+				try {
+					level = pack.get(Integer.parseInt(args[arg + 2]));
+				} finally {
+					pack.close();
+				}
+				arg += 2;
+			} else if (args[arg].equals("--xsb") && arg + 2 < args.length) {
+				level = SokobanReader.read(new File(args[arg + 1]),
+						Integer.parseInt(args[arg + 2]));
+				arg += 2;
+			} else if (args[arg].equals("--replay") && arg + 1 < args.length) {
+				replay = Replay.read(new File(args[arg + 1]));
+				arg++;
+			} else if (args[arg].equals("--repeat") && arg + 2 < args.length) {
+				delay = Integer.parseInt(args[arg + 1]);
+				interval = Integer.parseInt(args[arg + 2]);
+				arg += 2;
+			}
+		}
+		Game ex = new Game(level);
+		ex.setVisible(true);
+		boolean loop = active;
+		Replay recording = replay;
+		int repeatDelay = delay;
+		int repeatInterval = interval;
+		ex.whenReady(() -> {
+			ex.getBoard().setKeyRepeat(repeatDelay, repeatInterval);
+			if (loop)
+				new GameLoop(ex, ex.getBoard()).start();
+			if (recording != null)
+				ex.getBoard().playReplay(recording);
+		});
+	}
+
+	/**
+	 * Panel to show how much of the game has loaded.
+	 * 
+	 * @author Rodney Earl
+	 */
+	private static class LoadingPanel extends JPanel {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Width of the progress bar.
+		 */
+		private static final int BAR_WIDTH = 400;
+
+		/**
+		 * Loader being shown.
+		 */
+		private final AssetLoader assets;
+		/**
+		 * Timer to redraw the progress.
+		 */
+		private final Timer timer;
+
+		/**
+		 * Constructor for the panel.
+		 * 
+		 * @param assets
+		 *            Loader to show the progress of.
+		 */
+		LoadingPanel(AssetLoader assets) {
+			this.assets = assets;
+			setBackground(new Color(250, 240, 170));
+			timer = new Timer(50, e -> repaint());
+			timer.start();
+		}
+
+		/**
+		 * Method to stop redrawing the progress.
+		 */
+		void stop() {
+			timer.stop();
+		}
+
+		/**
+		 * Method to draw the progress bar.
+		 * 
+		 * @param g
+		 *            Graphic object being painted.
+		 */
+		public void paintComponent(Graphics g) {
+			super.paintComponent(g);
+			int x = (getWidth() - BAR_WIDTH) / 2;
+			int y = getHeight() / 2;
+			g.setColor(Color.BLACK);
+			g.drawString("Loading...", x, y - 10);
+			g.drawRect(x, y, BAR_WIDTH, 20);
+			g.fillRect(x, y, (int) (BAR_WIDTH * assets.getProgress()), 20);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package treasurehunt;
+
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.JFrame;
+
+/**
+ * Class for the active rendering game loop.
+ *
+ * Runs on its own thread instead of waiting on Swing. The board is drawn
+ * straight into the buffer strategy of the window at a capped rate, from the
+ * latest snapshot of the game; the game itself is advanced by the simulation
+ * loop, however long each frame takes.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class GameLoop implements Runnable {
+
+	/**
+	 * Most frames to draw per second.
+	 */
+	public static final int FRAME_RATE = 60;
+	/**
+	 * Shortest time, in nanoseconds, between two frames.
+	 */
+	private static final long FRAME = 1000000000L / FRAME_RATE;
+
+	/**
+	 * Window the board is drawn in.
+	 */
+	private final JFrame window;
+	/**
+	 * Board being played.
+	 */
+	private final Board board;
+	/**
+	 * Boolean to check if the loop should keep running.
+	 */
+	private volatile boolean running = false;
+	/**
+	 * Thread running the loop.
+	 */
+	private Thread thread;
+
+	/**
+	 * Constructor for the game loop.
+	 *
+	 * @param window
+	 *            Window the board is shown in. It must be visible.
+	 * @param board
+	 *            Board to draw.
+	 */
+	public GameLoop(JFrame window, Board board) {
+		this.window = window;
+		this.board = board;
+	}
+
+	/**
+	 * Method to take over drawing from Swing and start the loop.
+	 */
+	public void start() {
+		window.setIgnoreRepaint(true);
+		window.createBufferStrategy(2);
+		board.setActiveRendering(true);
+		running = true;
+		thread = new Thread(this, "game-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Method to stop the loop and hand drawing back to Swing.
+	 */
+	public void stop() {
+		running = false;
+		if (thread != null && thread != Thread.currentThread()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		board.setActiveRendering(false);
+		window.setIgnoreRepaint(false);
+		board.repaint();
+	}
+
+	/**
+	 * Method run by the loop thread.
+	 */
+	public void run() {
+		BufferStrategy strategy = window.getBufferStrategy();
+
+		while (running) {
+			long frameStart = System.nanoTime();
+			render(strategy);
+
+			// Wait out the rest of the frame.
+			long wake = frameStart + FRAME;
+			long now;
+			while ((now = System.nanoTime()) < wake)
+				LockSupport.parkNanos(wake - now);
+		}
+	}
+
+	/**
+	 * Method to draw one frame into the buffer strategy and show it.
+	 *
+	 * @param strategy
+	 *            Buffer strategy of the window.
+	 */
+	private void render(BufferStrategy strategy) {
+		Insets insets = window.getInsets();
+		do {
+			do {
+				Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+				try {
+					g.translate(insets.left, insets.top);
+					board.render(g);
+				} finally {
+					g.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+		} while (strategy.contentsLost());
+		// Push the frame out now rather than when the window system decides.
+		Toolkit.getDefaultToolkit().sync();
+	}
+}
@@ -1,7 +1,4 @@
-
-
-
-import javax.swing.ImageIcon;
+package treasurehunt;
 
 /**
  * Constructor for goal locations.
@@ -13,6 +10,11 @@ import javax.swing.ImageIcon;
  */
 public class Goal extends Sprite{
 
+	/**
+	 * File name of the goal zone image.
+	 */
+	public static final String IMAGE = "goal.png";
+
 	/**
 	 * Constructor for goals.
 	 * @param xPos X coordinate of a goal.
@@ -21,7 +23,6 @@ public class Goal extends Sprite{
     public Goal(int xPos, int yPos) {
     	
         super(xPos, yPos);
-        ImageIcon ii = new ImageIcon(this.getClass().getResource("goal.png"));
-        image = ii.getImage();
+        image = ImageCache.get(IMAGE);
     }
 }
@@ -0,0 +1,218 @@
+package treasurehunt;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+
+/**
+ * Class for the text drawn over the board; the clock, the score, the end
+ * game messages and the deadlock warning.
+ *
+ * Fonts are made once, and each piece of text is laid out into a glyph vector
+ * only when it changes, so drawing the HUD in a steady state allocates
+ * nothing.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Hud implements Commons {
+
+	/**
+	 * Area of the board covered by the clock.
+	 */
+	public static final Rectangle CLOCK_AREA = new Rectangle(
+			BOARD_WIDTH - 150, OFFSET * 2, 150, OFFSET * 8);
+	/**
+	 * Area of the board covered by the score.
+	 */
+	public static final Rectangle SCORE_AREA = new Rectangle(
+			BOARD_WIDTH / 2 - 25, OFFSET * 2, 100, OFFSET * 8);
+	/**
+	 * Area of the board covered by the deadlock warning.
+	 */
+	public static final Rectangle DEADLOCK_AREA = new Rectangle(0,
+			BOARD_HEIGHT - 100, BOARD_WIDTH, 40);
+
+	/**
+	 * Colour of the deadlock warning.
+	 */
+	private static final Color WARNING = new Color(220, 0, 0);
+
+	/**
+	 * Font for the clock, score and small messages.
+	 */
+	private static final Font SMALL_FONT = new Font("Verdana", Font.BOLD, 24);
+	/**
+	 * Font for the end game messages.
+	 */
+	private static final Font LARGE_FONT = new Font("Verdana", Font.BOLD, 48);
+	/**
+	 * Recognition shown once the game is over.
+	 */
+	private static final String[] CREDITS = {
+			"Game made by Bowen Hui and Rodney Earl", "Images by Rodney Earl",
+			"and Duncan Szarmes", "Music from Kevin MacLeod",
+			"Sound effects from MediaCollege.com" };
+
+	/**
+	 * Font render context the glyph vectors were laid out for.
+	 */
+	private FontRenderContext context;
+	/**
+	 * Characters of the clock text, "mm : ss".
+	 */
+	private final char[] clockText = new char[7];
+	/**
+	 * Seconds shown on the clock, or -1 if it has not been laid out.
+	 */
+	private long clockSeconds = -1;
+	/**
+	 * Laid out clock text.
+	 */
+	private GlyphVector clock;
+	/**
+	 * Score shown, or -1 if it has not been laid out.
+	 */
+	private int shownScore = -1;
+	/**
+	 * Number of goals shown with the score.
+	 */
+	private int shownGoals = -1;
+	/**
+	 * Laid out score text.
+	 */
+	private GlyphVector score;
+	/**
+	 * Laid out text that never changes.
+	 */
+	private GlyphVector restart;
+	private GlyphVector deadlock;
+	private GlyphVector gameOver;
+	private GlyphVector outOfTime;
+	private GlyphVector[] credits;
+	/**
+	 * X coordinate of the key hint.
+	 */
+	private int restartX;
+
+	/**
+	 * Method to draw the HUD.
+	 *
+	 * @param g
+	 *            Graphic object being painted.
+	 * @param timeRemaining
+	 *            Time, in milliseconds, left to finish the level.
+	 * @param currentScore
+	 *            Number of chests on goal zones.
+	 * @param goals
+	 *            Number of goal zones.
+	 * @param finished
+	 *            True if the game is over.
+	 * @param timedOut
+	 *            True if the player ran out of time.
+	 * @param deadlocked
+	 *            True if a chest can no longer reach a goal zone.
+	 */
+	public void paint(Graphics2D g, long timeRemaining, int currentScore,
+			int goals, boolean finished, boolean timedOut, boolean deadlocked) {
+
+		FontRenderContext frc = g.getFontRenderContext();
+		if (!frc.equals(context))
+			layout(frc);
+
+		long seconds = timeRemaining / 1000;
+		if (seconds != clockSeconds)
+			layoutClock(seconds);
+		if (currentScore != shownScore || goals != shownGoals)
+			layoutScore(currentScore, goals);
+
+		// Add text that will be shown all the time.
+		g.setColor(Color.BLACK);
+		g.drawGlyphVector(clock, BOARD_WIDTH - 150, OFFSET * 8);
+		g.drawGlyphVector(score, BOARD_WIDTH / 2 - 25, OFFSET * 8);
+
+		// Only show restart message during game.
+		if (!finished) {
+			g.drawGlyphVector(restart, restartX, BOARD_HEIGHT - 40);
+			// Warn that the level can not be won without undoing.
+			if (deadlocked) {
+				g.setColor(WARNING);
+				g.drawGlyphVector(deadlock, restartX, BOARD_HEIGHT - 70);
+			}
+			return;
+		}
+
+		// End game text.
+		g.drawGlyphVector(gameOver, 150, BOARD_HEIGHT / 2);
+		// Extra text for out of time message.
+		if (timedOut)
+			g.drawGlyphVector(outOfTime, 150, BOARD_HEIGHT / 2 + 50);
+
+		// Recognition.
+		for (int line = 0; line < credits.length; line++)
+			g.drawGlyphVector(credits[line], OFFSET, BOARD_HEIGHT - 160 + line
+					* 30);
+	}
+
+	/**
+	 * Method to lay out all the text for a new font render context.
+	 *
+	 * @param frc
+	 *            Font render context to lay out for.
+	 */
+	private void layout(FontRenderContext frc) {
+		context = frc;
+		restart = SMALL_FONT.createGlyphVector(frc,
+				"R to restart, U to undo, Y to redo.");
+		// Keep the hint against the right edge, where it always was.
+		restartX = BOARD_WIDTH - 30
+				- (int) restart.getLogicalBounds().getWidth();
+		deadlock = SMALL_FONT.createGlyphVector(frc,
+				"A chest is stuck! U to undo.");
+		gameOver = LARGE_FONT.createGlyphVector(frc, "Game Over");
+		outOfTime = LARGE_FONT.createGlyphVector(frc, "Out of Time");
+		credits = new GlyphVector[CREDITS.length];
+		for (int line = 0; line < CREDITS.length; line++)
+			credits[line] = SMALL_FONT.createGlyphVector(frc, CREDITS[line]);
+		clockSeconds = -1;
+		shownScore = -1;
+	}
+
+	/**
+	 * Method to lay out the clock text.
+	 *
+	 * @param seconds
+	 *            Seconds left to finish the level.
+	 */
+	private void layoutClock(long seconds) {
+		clockSeconds = seconds;
+		long minutes = (seconds / 60) % 60;
+		long rest = seconds % 60;
+		clockText[0] = (char) ('0' + minutes / 10);
+		clockText[1] = (char) ('0' + minutes % 10);
+		clockText[2] = ' ';
+		clockText[3] = ':';
+		clockText[4] = ' ';
+		clockText[5] = (char) ('0' + rest / 10);
+		clockText[6] = (char) ('0' + rest % 10);
+		clock = SMALL_FONT.createGlyphVector(context, clockText);
+	}
+
+	/**
+	 * Method to lay out the score text.
+	 *
+	 * @param currentScore
+	 *            Number of chests on goal zones.
+	 * @param goals
+	 *            Number of goal zones.
+	 */
+	private void layoutScore(int currentScore, int goals) {
+		shownScore = currentScore;
+		shownGoals = goals;
+		score = SMALL_FONT.createGlyphVector(context, currentScore + "/"
+				+ goals);
+	}
+}
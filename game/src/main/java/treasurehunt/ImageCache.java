@@ -0,0 +1,107 @@
+package treasurehunt;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class to load each sprite image once and share it.
+ *
+ * Images are loaded the first time they are asked for and converted to the
+ * format of the screen, so drawing them needs no conversion. Every sprite of
+ * the same kind then shares the one image. Images in the asset bundle are
+ * copied out of it as they are; others are decoded from their files.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class ImageCache {
+
+	/**
+	 * Images loaded so far, by file name.
+	 */
+	private static final ConcurrentHashMap<String, BufferedImage> images = new ConcurrentHashMap<String, BufferedImage>();
+
+	/**
+	 * Constructor is private, the cache is only used statically.
+	 */
+	private ImageCache() {
+	}
+
+	/**
+	 * Method to get an image, loading it if it has not been loaded yet.
+	 *
+	 * @param name
+	 *            File name of the image, next to the game classes.
+	 * @return Shared copy of the image.
+	 */
+	public static BufferedImage get(String name) {
+		BufferedImage image = images.get(name);
+		if (image == null)
+			image = images.computeIfAbsent(name, ImageCache::load);
+		return image;
+	}
+
+	/**
+	 * Method to load an image and convert it for the screen.
+	 *
+	 * @param name
+	 *            File name of the image.
+	 * @return Loaded image.
+	 */
+	private static BufferedImage load(String name) {
+		AssetBundle bundle = AssetBundle.get();
+		BufferedImage bundled = bundle == null ? null : bundle.getImage(name);
+		if (bundled != null)
+			// Already premultiplied ARGB, which is all there is headless.
+			return GraphicsEnvironment.isHeadless() ? bundled
+					: toCompatible(bundled);
+		URL url = ImageCache.class.getResource(name);
+		if (url == null)
+			throw new IllegalArgumentException("Missing image: " + name);
+		BufferedImage decoded;
+		try {
+			decoded = ImageIO.read(url);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read image: " + name, e);
+		}
+		if (decoded == null)
+			throw new IllegalArgumentException("Not an image: " + name);
+		return toCompatible(decoded);
+	}
+
+	/**
+	 * Method to copy an image into the format of the screen, or into
+	 * premultiplied ARGB when there is no screen.
+	 *
+	 * @param source
+	 *            Image to convert.
+	 * @return Converted image.
+	 */
+	static BufferedImage toCompatible(BufferedImage source) {
+		int width = source.getWidth();
+		int height = source.getHeight();
+		BufferedImage image;
+		if (GraphicsEnvironment.isHeadless()) {
+			image = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+		} else {
+			GraphicsConfiguration config = GraphicsEnvironment
+					.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDefaultConfiguration();
+			image = config.createCompatibleImage(width, height,
+					source.getTransparency());
+		}
+		Graphics2D g = image.createGraphics();
+		g.drawImage(source, 0, 0, null);
+		g.dispose();
+		return image;
+	}
+}
@@ -0,0 +1,104 @@
+package treasurehunt;
+
+/**
+ * Class for a queue of input events from one thread to another.
+ *
+ * Only one thread may add events and only one other thread may take them, so
+ * the queue needs no locks; each side owns one counter and only reads the
+ * other's. Events are held in a ring of fixed size, with the time each
+ * arrived. Adding to a full queue drops the event rather than waiting.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class InputQueue {
+
+	/**
+	 * Events waiting to be taken.
+	 */
+	private final int[] events;
+	/**
+	 * Time, in nanoseconds, each event arrived.
+	 */
+	private final long[] times;
+	/**
+	 * Mask to turn a count into a place in the ring.
+	 */
+	private final int mask;
+	/**
+	 * Number of events ever added. Only changed by the adding thread.
+	 */
+	private volatile long added;
+	/**
+	 * Number of events ever taken. Only changed by the taking thread.
+	 */
+	private volatile long taken;
+
+	/**
+	 * Constructor for a queue.
+	 *
+	 * @param capacity
+	 *            Most events the queue holds; a power of two.
+	 */
+	public InputQueue(int capacity) {
+		if (capacity <= 0 || (capacity & (capacity - 1)) != 0)
+			throw new IllegalArgumentException(
+					"Capacity must be a power of two: " + capacity);
+		events = new int[capacity];
+		times = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Method for the adding thread to add an event.
+	 *
+	 * @param event
+	 *            Event to add.
+	 * @param time
+	 *            Time, in nanoseconds, the event arrived.
+	 * @return True if the event was added, false if the queue was full.
+	 */
+	public boolean offer(int event, long time) {
+		long next = added;
+		if (next - taken == events.length)
+			return false;
+		int slot = (int) next & mask;
+		events[slot] = event;
+		times[slot] = time;
+		// Publishes the slot to the taking thread.
+		added = next + 1;
+		return true;
+	}
+
+	/**
+	 * Method for the taking thread to take the events waiting, oldest first.
+	 *
+	 * @param eventsOut
+	 *            Array to copy the events into.
+	 * @param timesOut
+	 *            Array to copy the times the events arrived into.
+	 * @return Number of events taken; no more than the length of the arrays.
+	 */
+	public int drain(int[] eventsOut, long[] timesOut) {
+		long first = taken;
+		int count = (int) Math.min(added - first, Math.min(eventsOut.length,
+				timesOut.length));
+		for (int event = 0; event < count; event++) {
+			int slot = (int) (first + event) & mask;
+			eventsOut[event] = events[slot];
+			timesOut[event] = times[slot];
+		}
+		// Hands the slots back to the adding thread.
+		taken = first + count;
+		return count;
+	}
+
+	/**
+	 * Method to check if any events are waiting.
+	 *
+	 * @return True if there are no events waiting, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return added == taken;
+	}
+}
@@ -0,0 +1,489 @@
+package treasurehunt;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Class for the layout of a level.
+ *
+ * Holds the parts of a level that never change once it is loaded: the size of
+ * the grid, where the trees, water, ships and goals are, and where the chests
+ * and the player start. Cells are indexed by column + row * columns. The
+ * dead cells, which a chest can never be pushed from onto a goal zone, are
+ * worked out the first time they are asked for.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Level implements Commons {
+
+	/**
+	 * Number of columns in the level.
+	 */
+	private final int columns;
+	/**
+	 * Number of rows in the level.
+	 */
+	private final int rows;
+	/**
+	 * Static cell flags; trees, water, ships and goals.
+	 */
+	private final byte[] cells;
+	/**
+	 * Bitset of the cells blocked by trees, water or ships.
+	 */
+	private final long[] walls;
+	/**
+	 * Bitset of the goal zones.
+	 */
+	private final long[] goals;
+	/**
+	 * Neighbouring cell in each direction, or -1 off the grid; indexed by
+	 * cell * 4 + direction - 1.
+	 */
+	private final int[] neighbours;
+	/**
+	 * Zobrist keys for states of this level.
+	 */
+	private final Zobrist zobrist;
+	/**
+	 * Cells the chests start on.
+	 */
+	private final int[] chests;
+	/**
+	 * Cell the player starts on, or -1 if the level has no player.
+	 */
+	private final int player;
+	/**
+	 * Number of goal zones in the level.
+	 */
+	private final int goalCount;
+	/**
+	 * Bitset of the dead cells, or null until they are first needed.
+	 */
+	private volatile long[] dead;
+
+	/**
+	 * Constructor for a level.
+	 *
+	 * @param layout
+	 *            String containing the level layout; T, W and S for trees,
+	 *            water and ships, $ for chests, . for goals, * for a chest on
+	 *            a goal, @ for the player and + for the player on a goal.
+	 */
+	public Level(String layout) {
+
+		// Size the grid to the widest line of the level.
+		int width = 0;
+		int maxWidth = 0;
+		int lines = 1;
+		int chestCount = 0;
+		for (int pos = 0; pos < layout.length(); pos++) {
+			char item = layout.charAt(pos);
+			if (item == '\n') {
+				lines++;
+				width = 0;
+			} else {
+				width++;
+				maxWidth = Math.max(maxWidth, width);
+				if (item == '$' || item == '*')
+					chestCount++;
+			}
+		}
+		columns = maxWidth;
+		rows = lines;
+		cells = new byte[columns * rows];
+		walls = new long[(cells.length + 63) >>> 6];
+		goals = new long[walls.length];
+		neighbours = new int[cells.length * 4];
+		chests = new int[chestCount];
+
+		int col = 0;
+		int row = 0;
+		int start = -1;
+		int found = 0;
+		int goalsFound = 0;
+
+		// Parse the level string and record what is in each cell.
+		for (int pos = 0; pos < layout.length(); pos++) {
+
+			char item = layout.charAt(pos);
+			int index = col + row * columns;
+
+			if (item == '\n') {
+				row++;
+				col = 0;
+				continue;
+			} else if (item == 'T') {
+				cells[index] = TREE_CELL;
+			} else if (item == 'W') {
+				cells[index] = WATER_CELL;
+			} else if (item == 'S') {
+				cells[index] = SHIP_CELL;
+			} else if (item == '$') {
+				chests[found++] = index;
+			} else if (item == '.') {
+				cells[index] = GOAL_CELL;
+				goalsFound++;
+			} else if (item == '@') {
+				start = index;
+			} else if (item == '*') {
+				// A chest already on a goal.
+				cells[index] = GOAL_CELL;
+				chests[found++] = index;
+				goalsFound++;
+			} else if (item == '+') {
+				// The player starting on a goal.
+				cells[index] = GOAL_CELL;
+				start = index;
+				goalsFound++;
+			} else if (item != ' ') {
+				// Anything else is not part of the layout.
+				continue;
+			}
+			col++;
+		}
+		player = start;
+		goalCount = goalsFound;
+		zobrist = new Zobrist(cells.length);
+		index();
+	}
+
+	/**
+	 * Constructor for a level that has already been laid out, such as one
+	 * read from a level pack.
+	 *
+	 * @param columns
+	 *            Number of columns in the level.
+	 * @param rows
+	 *            Number of rows in the level.
+	 * @param cells
+	 *            Tree, water, ship and goal flags of each cell. The array is
+	 *            kept, not copied.
+	 * @param chests
+	 *            Cells the chests start on. The array is kept, not copied.
+	 * @param player
+	 *            Cell the player starts on, or -1 if there is no player.
+	 */
+	public Level(int columns, int rows, byte[] cells, int[] chests, int player) {
+		if (cells.length != columns * rows)
+			throw new IllegalArgumentException("Level is " + columns + " by "
+					+ rows + " but has " + cells.length + " cells");
+		this.columns = columns;
+		this.rows = rows;
+		this.cells = cells;
+		this.chests = chests;
+		this.player = player;
+		walls = new long[(cells.length + 63) >>> 6];
+		goals = new long[walls.length];
+		neighbours = new int[cells.length * 4];
+		int goalsFound = 0;
+		for (int index = 0; index < cells.length; index++)
+			if ((cells[index] & GOAL_CELL) != 0)
+				goalsFound++;
+		goalCount = goalsFound;
+		zobrist = new Zobrist(cells.length);
+		index();
+	}
+
+	/**
+	 * Method to fill in the neighbour table and the static masks for the
+	 * cells nothing can move onto, and the goals.
+	 */
+	private void index() {
+		for (int index = 0; index < cells.length; index++) {
+			int column = index % columns;
+			neighbours[index * 4] = index >= columns ? index - columns : -1;
+			neighbours[index * 4 + 1] = column != columns - 1 ? index + 1 : -1;
+			neighbours[index * 4 + 2] = index + columns < cells.length ? index
+					+ columns : -1;
+			neighbours[index * 4 + 3] = column != 0 ? index - 1 : -1;
+			if ((cells[index] & (TREE_CELL | WATER_CELL | SHIP_CELL)) != 0)
+				walls[index >>> 6] |= 1L << index;
+			if ((cells[index] & GOAL_CELL) != 0)
+				goals[index >>> 6] |= 1L << index;
+		}
+	}
+
+	/**
+	 * Method to create the state the level starts in.
+	 *
+	 * @return New state with the starting chests and player.
+	 */
+	public State createState() {
+		State state = new State(zobrist);
+		for (int index = 0; index < chests.length; index++)
+			state.addChest(chests[index]);
+		state.setPlayer(player);
+		return state;
+	}
+
+	/**
+	 * Accessor for the number of columns.
+	 *
+	 * @return Number of columns in the level.
+	 */
+	public int getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Accessor for the number of rows.
+	 *
+	 * @return Number of rows in the level.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Accessor for the number of cells.
+	 *
+	 * @return Number of cells in the level.
+	 */
+	public int getSize() {
+		return cells.length;
+	}
+
+	/**
+	 * Accessor for the static flags of a cell.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return Tree, water, ship and goal flags of the cell.
+	 */
+	public int getCell(int index) {
+		return cells[index];
+	}
+
+	/**
+	 * Accessor for the cells the chests start on.
+	 *
+	 * @return Copy of the starting chest cells.
+	 */
+	public int[] getChests() {
+		return chests.clone();
+	}
+
+	/**
+	 * Accessor for the number of chests.
+	 *
+	 * @return Number of chests in the level.
+	 */
+	public int getChestCount() {
+		return chests.length;
+	}
+
+	/**
+	 * Accessor for the cell the player starts on.
+	 *
+	 * @return Starting cell of the player, or -1 if there is no player.
+	 */
+	public int getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Accessor for the number of goal zones.
+	 *
+	 * @return Number of goal zones in the level.
+	 */
+	public int getGoalCount() {
+		return goalCount;
+	}
+
+	/**
+	 * Method to check if a cell is a goal zone.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return True if the cell is a goal, false otherwise.
+	 */
+	public boolean isGoal(int index) {
+		return (goals[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Method to check if a cell is blocked by a tree, water or a ship.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return True if nothing can move onto the cell, false otherwise.
+	 */
+	public boolean isBlocked(int index) {
+		return (walls[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Method to check if a cell is dead; a chest on it can never be pushed
+	 * onto a goal zone, even with no other chests in the way.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return True if the cell is dead, false otherwise.
+	 */
+	public boolean isDead(int index) {
+		long[] mask = dead;
+		if (mask == null)
+			// Working it out twice at once gives the same answer.
+			dead = mask = findDeadCells();
+		return (mask[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Method to find the dead cells. Chests are pulled back from every goal
+	 * zone at once; any cell none of them can be pulled onto is dead.
+	 *
+	 * @return Bitset of the dead cells.
+	 */
+	private long[] findDeadCells() {
+		// Start with the cells that are not walls, and clear each one a
+		// chest can be pulled onto.
+		long[] mask = new long[walls.length];
+		for (int index = 0; index < cells.length; index++)
+			if (!isBlocked(index))
+				mask[index >>> 6] |= 1L << index;
+		int[] queue = new int[cells.length];
+		int head = 0;
+		int tail = 0;
+		for (int index = 0; index < cells.length; index++) {
+			if (isGoal(index)) {
+				mask[index >>> 6] &= ~(1L << index);
+				queue[tail++] = index;
+			}
+		}
+		// The player has to stand behind the cell the chest is pulled to.
+		while (head < tail) {
+			int cell = queue[head++];
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int before = neighbour(cell, direction);
+				if (before < 0 || (mask[before >>> 6] & (1L << before)) == 0)
+					continue;
+				int behind = neighbour(before, direction);
+				if (behind < 0 || isBlocked(behind))
+					continue;
+				mask[before >>> 6] &= ~(1L << before);
+				queue[tail++] = before;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Accessor for the goal mask. The array is shared and must not be
+	 * changed.
+	 *
+	 * @return Bitset of the goal zones.
+	 */
+	public long[] getGoals() {
+		return goals;
+	}
+
+	/**
+	 * Accessor for the wall mask. The array is shared and must not be
+	 * changed.
+	 *
+	 * @return Bitset of the cells blocked by trees, water or ships.
+	 */
+	public long[] getWalls() {
+		return walls;
+	}
+
+	/**
+	 * Method to find the column of a cell.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return Column of the cell.
+	 */
+	public int getColumn(int index) {
+		return index % columns;
+	}
+
+	/**
+	 * Method to find the row of a cell.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return Row of the cell.
+	 */
+	public int getRow(int index) {
+		return index / columns;
+	}
+
+	/**
+	 * Method to find the cell next to another cell.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @param direction
+	 *            Which side; top, right, bottom, or left.
+	 * @return Index of the neighbouring cell, or -1 if it is off the grid.
+	 */
+	public int neighbour(int index, int direction) {
+		return neighbours[index * 4 + direction - 1];
+	}
+
+	/**
+	 * Method to find a fingerprint of the level: its size, what is on every
+	 * cell and where the chests and player start. Levels that differ in any
+	 * of those have different fingerprints, short of breaking SHA-256.
+	 *
+	 * @return First 64 bits of the SHA-256 digest of the level.
+	 */
+	public long getFingerprint() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform has to support SHA-256.
+			throw new IllegalStateException(e);
+		}
+		int[] starts = chests.clone();
+		Arrays.sort(starts);
+		byte[] numbers = new byte[4 * (3 + starts.length)];
+		int at = putInt(numbers, 0, columns);
+		at = putInt(numbers, at, rows);
+		at = putInt(numbers, at, player);
+		for (int chest : starts)
+			at = putInt(numbers, at, chest);
+		digest.update(numbers);
+		digest.update(cells);
+		byte[] hash = digest.digest();
+		long fingerprint = 0;
+		for (int index = 0; index < 8; index++)
+			fingerprint = fingerprint << 8 | (hash[index] & 0xFF);
+		return fingerprint;
+	}
+
+	/**
+	 * Method to write a big-endian int into an array.
+	 *
+	 * @param bytes
+	 *            Array to write to.
+	 * @param offset
+	 *            Where the int starts.
+	 * @param value
+	 *            Value to write.
+	 * @return Offset just past the int.
+	 */
+	private static int putInt(byte[] bytes, int offset, int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+		return offset + 4;
+	}
+
+	/**
+	 * Method to find the opposite of a direction.
+	 *
+	 * @param direction
+	 *            Direction; top, right, bottom, or left.
+	 * @return Opposite direction.
+	 */
+	public static int opposite(int direction) {
+		return (direction + 1) % 4 + 1;
+	}
+}
@@ -0,0 +1,685 @@
+package treasurehunt;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Class for a headless tool that checks every level in a file.
+ *
+ * Each level is first looked over for layouts that can never be solved: no
+ * player, fewer chests than goals, a goal no chest can be pushed onto, or a
+ * chest stuck on a dead cell. Levels that pass are then solved, several at
+ * once on a fork-join pool, each with its own time and memory budget. The
+ * results go to a JSON or CSV report, one entry per level, with the optimal
+ * number of pushes for each level that was solved.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class LevelChecker implements Commons {
+
+	/**
+	 * Status of a level that was solved.
+	 */
+	public static final String SOLVED = "solved";
+	/**
+	 * Status of a level the solver proved has no solution.
+	 */
+	public static final String UNSOLVABLE = "unsolvable";
+	/**
+	 * Status of a level the solver ran out of time or memory on.
+	 */
+	public static final String GAVE_UP = "gave up";
+	/**
+	 * Status of a level whose layout can never be solved.
+	 */
+	public static final String BROKEN = "broken";
+
+	/**
+	 * Bytes taken by each entry of the solver's transposition table.
+	 */
+	private static final int TABLE_ENTRY = 16;
+
+	/**
+	 * Class for one level to check. Only where to find the level is kept;
+	 * it is laid out when it is checked, so the levels waiting do not all
+	 * take up memory at once.
+	 */
+	private static final class Entry {
+		/**
+		 * Title of the level, or null if it has none.
+		 */
+		private final String title;
+		/**
+		 * Layout of the level, or null if it is in the pack.
+		 */
+		private final String layout;
+		/**
+		 * Number of the level in the pack, or -1 if it has a layout.
+		 */
+		private final int number;
+		/**
+		 * Why the level could not be read, or null if it was.
+		 */
+		private final String error;
+
+		private Entry(String title, String layout, int number, String error) {
+			this.title = title;
+			this.layout = layout;
+			this.number = number;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * Class for what was found out about one level.
+	 */
+	private static final class Result {
+		/**
+		 * SOLVED, UNSOLVABLE, GAVE_UP or BROKEN.
+		 */
+		private String status;
+		/**
+		 * Size of the level in cells.
+		 */
+		private int columns;
+		private int rows;
+		/**
+		 * Number of chests and goal zones.
+		 */
+		private int chests;
+		private int goals;
+		/**
+		 * Pushes and moves in the solution, or -1 if none was found.
+		 */
+		private int pushes = -1;
+		private int moves = -1;
+		/**
+		 * States the solver expanded.
+		 */
+		private long states;
+		/**
+		 * Time, in milliseconds, the check took.
+		 */
+		private long millis;
+		/**
+		 * Problems found with the layout, most serious first.
+		 */
+		private final List<String> problems = new ArrayList<String>();
+	}
+
+	/**
+	 * Class to check a range of levels, splitting it in two until each task
+	 * has a single level.
+	 */
+	private final class Check extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		/**
+		 * First level of the range, and one past the last.
+		 */
+		private final int from;
+		private final int to;
+
+		private Check(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from == 1) {
+				// One level going wrong must not stop the rest being checked.
+				Result result;
+				try {
+					result = check(entries.get(from));
+				} catch (OutOfMemoryError e) {
+					result = failed(GAVE_UP, "ran out of memory");
+				} catch (RuntimeException e) {
+					result = failed(BROKEN, "check failed: " + e);
+				}
+				results[from] = result;
+				report(from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Check(from, middle), new Check(middle, to));
+		}
+	}
+
+	/**
+	 * File the levels are read from.
+	 */
+	private final File file;
+	/**
+	 * Levels to check, in order.
+	 */
+	private final List<Entry> entries;
+	/**
+	 * Pack the levels are read from while they are checked, or null if the
+	 * file is not a pack.
+	 */
+	private LevelPack pack;
+	/**
+	 * Result for each level, filled in as the levels are checked.
+	 */
+	private final Result[] results;
+	/**
+	 * Most time, in milliseconds, to spend solving each level.
+	 */
+	private long timeLimit = 10000;
+	/**
+	 * Most states to expand solving each level.
+	 */
+	private long maxStates = 1000000;
+	/**
+	 * Most memory, in bytes, to let the solver take for each level.
+	 */
+	private long memory = 256L << 20;
+	/**
+	 * Number of levels done, for the progress lines.
+	 */
+	private int done;
+
+	/**
+	 * Constructor for a checker of the levels in a file. A .xsb or .sok file
+	 * is read as a Sokoban collection, a .pack file as a level pack, and
+	 * anything else as levels in the text format separated by empty lines.
+	 *
+	 * @param file
+	 *            File holding the levels.
+	 * @throws IOException
+	 *             If the file can not be read.
+	 */
+	public LevelChecker(File file) throws IOException {
+		this.file = file;
+		entries = new ArrayList<Entry>();
+		if (LevelPack.isCollection(file.getName())) {
+			SokobanReader reader = new SokobanReader(file);
+			try {
+				while (reader.hasNext()) {
+					try {
+						String layout = reader.nextLayout();
+						entries.add(new Entry(reader.getTitle(), layout, -1,
+								null));
+					} catch (UncheckedIOException e) {
+						entries.add(new Entry(reader.getTitle(), null, -1,
+								"level can not be read: " + e.getMessage()));
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} else if (isPack()) {
+			LevelPack levels = new LevelPack(file);
+			try {
+				for (int number = 0; number < levels.size(); number++)
+					entries.add(new Entry(null, null, number, null));
+			} finally {
+				levels.close();
+			}
+		} else {
+			for (String layout : LevelPack.readLayouts(file))
+				entries.add(new Entry(null, layout, -1, null));
+		}
+		results = new Result[entries.size()];
+	}
+
+	/**
+	 * Method to check if the levels are in a level pack.
+	 *
+	 * @return True if the file is a .pack file, false otherwise.
+	 */
+	private boolean isPack() {
+		return file.getName().toLowerCase().endsWith(".pack");
+	}
+
+	/**
+	 * Mutator for the most time to spend solving each level.
+	 *
+	 * @param millis
+	 *            Time limit in milliseconds, or 0 for no limit.
+	 */
+	public void setTimeLimit(long millis) {
+		timeLimit = millis;
+	}
+
+	/**
+	 * Mutator for the most states to expand solving each level.
+	 *
+	 * @param maxStates
+	 *            Most states to expand.
+	 */
+	public void setMaxStates(long maxStates) {
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Mutator for the most memory the solver may take for each level.
+	 *
+	 * @param bytes
+	 *            Memory budget in bytes.
+	 */
+	public void setMemory(long bytes) {
+		memory = bytes;
+	}
+
+	/**
+	 * Accessor for the number of levels.
+	 *
+	 * @return Number of levels read from the file.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Method to check every level. The memory budget is lowered if that many
+	 * levels at once would not fit in the heap.
+	 *
+	 * @param threads
+	 *            Number of levels to solve at once.
+	 * @throws IOException
+	 *             If the level pack can not be opened again.
+	 */
+	public void run(int threads) throws IOException {
+		done = 0;
+		if (entries.isEmpty())
+			return;
+		// Every level being solved at once has to fit in the heap together,
+		// with a quarter of it left over.
+		long fits = Runtime.getRuntime().maxMemory() / 4 * 3 / threads;
+		if (memory > fits) {
+			System.out.println("Memory budget lowered from " + (memory >> 20)
+					+ " MB to " + (fits >> 20) + " MB a level, to fit "
+					+ threads + " at once in the heap");
+			memory = fits;
+		}
+		// The levels of a pack are read by every thread from one mapping.
+		if (isPack())
+			pack = new LevelPack(file);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new Check(0, entries.size()));
+		} finally {
+			pool.shutdown();
+			if (pack != null) {
+				pack.close();
+				pack = null;
+			}
+		}
+	}
+
+	/**
+	 * Method to check one level.
+	 *
+	 * @param entry
+	 *            Level to check.
+	 * @return What was found out about it.
+	 */
+	private Result check(Entry entry) {
+		if (entry.error != null)
+			return failed(BROKEN, entry.error);
+		Result result = new Result();
+		long start = System.nanoTime();
+		Level level;
+		try {
+			if (entry.number >= 0)
+				level = pack.get(entry.number);
+			else
+				level = new Level(entry.layout);
+		} catch (RuntimeException e) {
+			return failed(BROKEN, (entry.number >= 0 ? "level" : "layout")
+					+ " can not be read: " + e.getMessage());
+		}
+		result.columns = level.getColumns();
+		result.rows = level.getRows();
+		result.chests = level.getChestCount();
+		result.goals = level.getGoalCount();
+
+		Solver solver = new Solver(level);
+		boolean broken = findProblems(level, solver, result.problems);
+		if (broken) {
+			result.status = BROKEN;
+		} else {
+			budget(solver, level);
+			String solution = solver.solve();
+			result.states = solver.getExplored();
+			if (solution != null) {
+				result.status = SOLVED;
+				result.pushes = solver.getPushes();
+				result.moves = solution.length();
+			} else {
+				result.status = solver.isAborted() ? GAVE_UP : UNSOLVABLE;
+			}
+		}
+		result.millis = (System.nanoTime() - start) / 1000000;
+		return result;
+	}
+
+	/**
+	 * Method to make the result of a level that could not be checked.
+	 *
+	 * @param status
+	 *            GAVE_UP or BROKEN.
+	 * @param problem
+	 *            What went wrong.
+	 * @return The result.
+	 */
+	private static Result failed(String status, String problem) {
+		Result result = new Result();
+		result.status = status;
+		result.problems.add(problem);
+		return result;
+	}
+
+	/**
+	 * Method to look a level over for layouts that can never be solved.
+	 *
+	 * @param level
+	 *            Level to look over.
+	 * @param solver
+	 *            Solver for the level, for the goals chests can reach.
+	 * @param problems
+	 *            List to add a line to for each problem found.
+	 * @return True if the level can never be solved, false otherwise.
+	 */
+	private static boolean findProblems(Level level, Solver solver,
+			List<String> problems) {
+		boolean broken = false;
+		int chests = level.getChestCount();
+		int goals = level.getGoalCount();
+		if (level.getPlayer() < 0) {
+			problems.add("no player");
+			broken = true;
+		}
+		if (goals == 0) {
+			problems.add("no goals");
+			broken = true;
+		}
+		if (chests < goals) {
+			problems.add("fewer chests (" + chests + ") than goals (" + goals
+					+ ")");
+			broken = true;
+		} else if (chests > goals) {
+			problems.add("more chests (" + chests + ") than goals (" + goals
+					+ ")");
+		}
+		for (int index = 0; index < level.getSize(); index++) {
+			if (level.isGoal(index) && chests > 0 && !solver.canFill(index)) {
+				problems.add("no chest can reach the goal at " + cell(level, index));
+				broken = true;
+			}
+		}
+		// A chest on a dead cell only breaks the level if every chest is
+		// needed; with spare chests it can be left where it is.
+		for (int chest : level.getChests()) {
+			if (!level.isGoal(chest) && level.isDead(chest)) {
+				problems.add("chest on a dead cell at " + cell(level, chest));
+				if (chests == goals)
+					broken = true;
+			}
+		}
+		return broken;
+	}
+
+	/**
+	 * Method to give the solver its share of the time and memory budgets.
+	 * The transposition table takes a quarter of the memory at most, and the
+	 * rest caps how many nodes the search may keep, leaving room for the
+	 * node arrays to grow by doubling.
+	 *
+	 * @param solver
+	 *            Solver to set up.
+	 * @param level
+	 *            Level being solved.
+	 */
+	private void budget(Solver solver, Level level) {
+		int bits = 10;
+		while (bits < 24 && (long) TABLE_ENTRY << (bits + 1) <= memory / 4)
+			bits++;
+		long table = (long) TABLE_ENTRY << bits;
+		long distances = 4L * level.getGoalCount() * level.getSize();
+		long nodes = (memory - table - distances) * 2 / 3
+				/ Solver.nodeBytes(level);
+		solver.setTableBits(bits);
+		solver.setMaxNodes(Math.max(1, nodes));
+		solver.setMaxStates(maxStates);
+		solver.setTimeLimit(timeLimit);
+	}
+
+	/**
+	 * Method to name a cell for a person to find.
+	 *
+	 * @param level
+	 *            Level the cell is in.
+	 * @param index
+	 *            Index of the cell.
+	 * @return Column and row of the cell, counting from 1.
+	 */
+	private static String cell(Level level, int index) {
+		return "column " + (level.getColumn(index) + 1) + " row "
+				+ (level.getRow(index) + 1);
+	}
+
+	/**
+	 * Method to print a line once a level is checked.
+	 *
+	 * @param number
+	 *            Number of the level, counting from 0.
+	 */
+	private synchronized void report(int number) {
+		done++;
+		Result result = results[number];
+		StringBuilder line = new StringBuilder();
+		line.append('[').append(done).append('/').append(entries.size())
+				.append("] level ").append(number + 1).append(": ")
+				.append(result.status);
+		if (result.pushes >= 0)
+			line.append(", ").append(result.pushes).append(" pushes");
+		line.append(", ").append(result.millis).append(" ms");
+		for (String problem : result.problems)
+			line.append("; ").append(problem);
+		System.out.println(line);
+	}
+
+	/**
+	 * Method to count the levels with a status.
+	 *
+	 * @param status
+	 *            Status to count.
+	 * @return Number of levels with that status.
+	 */
+	public int count(String status) {
+		int count = 0;
+		for (Result result : results) {
+			if (result != null && result.status.equals(status))
+				count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Method to write the report. A name ending in .csv gives CSV, anything
+	 * else JSON.
+	 *
+	 * @param file
+	 *            File to write the report to.
+	 * @throws IOException
+	 *             If the file can not be written.
+	 */
+	public void write(File file) throws IOException {
+		PrintWriter out = new PrintWriter(new FileWriter(file));
+		try {
+			if (file.getName().toLowerCase().endsWith(".csv"))
+				writeCsv(out);
+			else
+				writeJson(out);
+			if (out.checkError())
+				throw new IOException("Could not write " + file);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Method to write the report as a JSON array with an object per level.
+	 *
+	 * @param out
+	 *            Where to write the report.
+	 */
+	private void writeJson(PrintWriter out) {
+		out.println("[");
+		for (int number = 0; number < results.length; number++) {
+			Result result = results[number];
+			out.print("  {\"level\": " + (number + 1));
+			out.print(", \"title\": " + json(entries.get(number).title));
+			out.print(", \"columns\": " + result.columns);
+			out.print(", \"rows\": " + result.rows);
+			out.print(", \"chests\": " + result.chests);
+			out.print(", \"goals\": " + result.goals);
+			out.print(", \"status\": " + json(result.status));
+			out.print(", \"pushes\": "
+					+ (result.pushes >= 0 ? result.pushes : "null"));
+			out.print(", \"moves\": "
+					+ (result.moves >= 0 ? result.moves : "null"));
+			out.print(", \"states\": " + result.states);
+			out.print(", \"millis\": " + result.millis);
+			out.print(", \"problems\": [");
+			for (int problem = 0; problem < result.problems.size(); problem++) {
+				if (problem > 0)
+					out.print(", ");
+				out.print(json(result.problems.get(problem)));
+			}
+			out.println(number + 1 < results.length ? "]}," : "]}");
+		}
+		out.println("]");
+	}
+
+	/**
+	 * Method to write the report as CSV with a header line and a line per
+	 * level. Problems are joined with semicolons.
+	 *
+	 * @param out
+	 *            Where to write the report.
+	 */
+	private void writeCsv(PrintWriter out) {
+		out.println("level,title,columns,rows,chests,goals,status,pushes,moves,states,millis,problems");
+		for (int number = 0; number < results.length; number++) {
+			Result result = results[number];
+			StringBuilder problems = new StringBuilder();
+			for (String problem : result.problems) {
+				if (problems.length() > 0)
+					problems.append("; ");
+				problems.append(problem);
+			}
+			out.println((number + 1) + "," + csv(entries.get(number).title)
+					+ "," + result.columns + "," + result.rows + ","
+					+ result.chests + "," + result.goals + ","
+					+ csv(result.status) + ","
+					+ (result.pushes >= 0 ? result.pushes : "") + ","
+					+ (result.moves >= 0 ? result.moves : "") + ","
+					+ result.states + "," + result.millis + ","
+					+ csv(problems.toString()));
+		}
+	}
+
+	/**
+	 * Method to quote a string for JSON.
+	 *
+	 * @param text
+	 *            String to quote, or null.
+	 * @return The quoted string, or null if there was none.
+	 */
+	private static String json(String text) {
+		if (text == null)
+			return "null";
+		StringBuilder quoted = new StringBuilder("\"");
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' || c == '\\')
+				quoted.append('\\').append(c);
+			else if (c < ' ')
+				quoted.append(String.format("\\u%04x", (int) c));
+			else
+				quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+
+	/**
+	 * Method to quote a string for CSV.
+	 *
+	 * @param text
+	 *            String to quote, or null.
+	 * @return The quoted string, or an empty field if there was none.
+	 */
+	private static String csv(String text) {
+		if (text == null || text.isEmpty())
+			return "";
+		return "\"" + text.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * Main method to check the levels in a file and write a report.
+	 *
+	 * @param args
+	 *            Options, then the file of levels and the report file.
+	 *            --time ms and --states n limit the search for each level,
+	 *            --memory MB caps the memory the solver may take for each
+	 *            level, and --threads n sets how many levels are solved at
+	 *            once.
+	 * @throws IOException
+	 *             If the levels can not be read or the report written.
+	 */
+	public static void main(String[] args) throws IOException {
+		long time = -1;
+		long states = -1;
+		long memory = -1;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int arg = 0;
+		while (arg + 1 < args.length && args[arg].startsWith("--")) {
+			if (args[arg].equals("--time"))
+				time = Long.parseLong(args[arg + 1]);
+			else if (args[arg].equals("--states"))
+				states = Long.parseLong(args[arg + 1]);
+			else if (args[arg].equals("--memory"))
+				memory = Long.parseLong(args[arg + 1]) << 20;
+			else if (args[arg].equals("--threads"))
+				threads = Integer.parseInt(args[arg + 1]);
+			else
+				break;
+			arg += 2;
+		}
+		if (args.length - arg != 2) {
+			System.out.println("Usage: LevelChecker [--time ms] [--states n]"
+					+ " [--memory MB] [--threads n] levels report.json|report.csv");
+			System.exit(2);
+		}
+
+		LevelChecker checker = new LevelChecker(new File(args[arg]));
+		if (time >= 0)
+			checker.setTimeLimit(time);
+		if (states >= 0)
+			checker.setMaxStates(states);
+		if (memory >= 0)
+			checker.setMemory(memory);
+		long start = System.nanoTime();
+		checker.run(threads);
+		long millis = (System.nanoTime() - start) / 1000000;
+		checker.write(new File(args[arg + 1]));
+
+		int solved = checker.count(SOLVED);
+		System.out.println(solved + " of " + checker.size() + " solved, "
+				+ checker.count(UNSOLVABLE) + " unsolvable, "
+				+ checker.count(GAVE_UP) + " gave up, "
+				+ checker.count(BROKEN) + " broken, in " + millis + " ms");
+		if (solved != checker.size())
+			System.exit(1);
+	}
+}
@@ -0,0 +1,403 @@
+package treasurehunt;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class for a pack of levels stored in a binary file.
+ *
+ * The file starts with a header: the magic number, the format version and the
+ * number of levels, followed by an index holding the file offset of each
+ * level. Each level is its number of columns and rows, then one four bit code
+ * per cell, two cells to a byte. The file is memory-mapped, so opening a
+ * level only decodes that level's cells, and the pack itself never has to be
+ * read onto the heap. All numbers are big-endian.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class LevelPack implements Closeable, Commons {
+
+	/**
+	 * Magic number at the start of every pack, "THLP".
+	 */
+	public static final int MAGIC = 0x54484C50;
+	/**
+	 * Version of the format written by this class.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Size, in bytes, of the header before the index.
+	 */
+	private static final int HEADER_SIZE = 12;
+	/**
+	 * Size, in bytes, of the columns and rows before the cells of a level.
+	 */
+	private static final int LEVEL_HEADER_SIZE = 4;
+
+	/**
+	 * Cell codes. Everything that can stand on a cell at the start of a
+	 * level fits in four bits.
+	 */
+	static final int FLOOR = 0;
+	static final int TREE = 1;
+	static final int WATER = 2;
+	static final int SHIP = 3;
+	static final int GOAL = 4;
+	static final int CHEST = 5;
+	static final int CHEST_ON_GOAL = 6;
+	static final int PLAYER = 7;
+	static final int PLAYER_ON_GOAL = 8;
+
+	/**
+	 * File the pack was opened from.
+	 */
+	private final File file;
+	/**
+	 * Channel the pack is mapped from.
+	 */
+	private final FileChannel channel;
+	/**
+	 * Mapping of the whole pack.
+	 */
+	private final MappedByteBuffer buffer;
+	/**
+	 * Number of levels in the pack.
+	 */
+	private final int count;
+
+	/**
+	 * Constructor for a level pack. Maps the file and checks the header.
+	 *
+	 * @param file
+	 *            File holding the pack.
+	 * @throws IOException
+	 *             If the file can not be read or is not a level pack.
+	 */
+	public LevelPack(File file) throws IOException {
+		this.file = file;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		channel = raf.getChannel();
+		try {
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+				throw new IOException(file + " is not a level pack");
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			if (buffer.getInt(0) != MAGIC)
+				throw new IOException(file + " is not a level pack");
+			if (buffer.getInt(4) != VERSION)
+				throw new IOException(file + " is version " + buffer.getInt(4)
+						+ ", expected " + VERSION);
+			count = buffer.getInt(8);
+			if (count < 0 || HEADER_SIZE + 4L * count > size)
+				throw new IOException(file + " has a broken index");
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Accessor for the number of levels.
+	 *
+	 * @return Number of levels in the pack.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Method to read a level from the pack. The mapping is only read, so
+	 * several threads may read levels at once.
+	 *
+	 * @param number
+	 *            Number of the level, starting from zero.
+	 * @return The level.
+	 * @throws UncheckedIOException
+	 *             If the level runs past the end of the file.
+	 */
+	public Level get(int number) {
+		if (number < 0 || number >= count)
+			throw new IndexOutOfBoundsException("Level " + number + " of "
+					+ count);
+		int limit = buffer.limit();
+		int offset = buffer.getInt(HEADER_SIZE + 4 * number);
+		if (offset < HEADER_SIZE || offset > limit - LEVEL_HEADER_SIZE)
+			throw broken(number, "starts at " + offset + ", outside the "
+					+ limit + " byte file");
+		int columns = buffer.getShort(offset) & 0xFFFF;
+		int rows = buffer.getShort(offset + 2) & 0xFFFF;
+		// Up to 65535 by 65535 cells, which can overflow an int.
+		long cellCount = (long) columns * rows;
+		int data = offset + LEVEL_HEADER_SIZE;
+		if (data + (cellCount + 1) / 2 > limit)
+			throw broken(number, "is " + columns + " by " + rows
+					+ " but runs past the end of the " + limit + " byte file");
+		if (cellCount > Integer.MAX_VALUE - 8)
+			throw broken(number, "is " + columns + " by " + rows
+					+ ", too big to load");
+		int size = (int) cellCount;
+
+		byte[] cells = new byte[size];
+		int[] found = new int[size];
+		int chests = 0;
+		int player = -1;
+		for (int index = 0; index < size; index++) {
+			int packed = buffer.get(data + (index >>> 1));
+			int code = (index & 1) == 0 ? (packed >>> 4) & 0xF : packed & 0xF;
+			switch (code) {
+			case TREE:
+				cells[index] = TREE_CELL;
+				break;
+			case WATER:
+				cells[index] = WATER_CELL;
+				break;
+			case SHIP:
+				cells[index] = SHIP_CELL;
+				break;
+			case GOAL:
+				cells[index] = GOAL_CELL;
+				break;
+			case CHEST_ON_GOAL:
+				cells[index] = GOAL_CELL;
+				found[chests++] = index;
+				break;
+			case CHEST:
+				found[chests++] = index;
+				break;
+			case PLAYER_ON_GOAL:
+				cells[index] = GOAL_CELL;
+				player = index;
+				break;
+			case PLAYER:
+				player = index;
+				break;
+			default:
+				break;
+			}
+		}
+		int[] starts = new int[chests];
+		System.arraycopy(found, 0, starts, 0, chests);
+		return new Level(columns, rows, cells, starts, player);
+	}
+
+	/**
+	 * Method to make the exception for a level that can not be read.
+	 *
+	 * @param number
+	 *            Number of the level.
+	 * @param problem
+	 *            What is wrong with it.
+	 * @return Exception naming the file and the level.
+	 */
+	private UncheckedIOException broken(int number, String problem) {
+		return new UncheckedIOException(new IOException("Level " + number
+				+ " of " + file + " " + problem));
+	}
+
+	/**
+	 * Method to close the pack. Levels already read stay usable.
+	 *
+	 * @throws IOException
+	 *             If the file can not be closed.
+	 */
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Method to find the code a cell is stored as.
+	 *
+	 * @param level
+	 *            Level holding the cell.
+	 * @param index
+	 *            Index of the cell.
+	 * @param chest
+	 *            True if a chest starts on the cell.
+	 * @return Four bit code of the cell.
+	 */
+	static int encode(Level level, int index, boolean chest) {
+		int cell = level.getCell(index);
+		boolean goal = (cell & GOAL_CELL) != 0;
+		if (chest)
+			return goal ? CHEST_ON_GOAL : CHEST;
+		if (index == level.getPlayer())
+			return goal ? PLAYER_ON_GOAL : PLAYER;
+		if ((cell & TREE_CELL) != 0)
+			return TREE;
+		if ((cell & WATER_CELL) != 0)
+			return WATER;
+		if ((cell & SHIP_CELL) != 0)
+			return SHIP;
+		return goal ? GOAL : FLOOR;
+	}
+
+	/**
+	 * Method to write levels out as a pack.
+	 *
+	 * @param levels
+	 *            Levels to write, in order.
+	 * @param file
+	 *            File to write to.
+	 * @throws IOException
+	 *             If the file can not be written.
+	 */
+	public static void write(List<Level> levels, File file) throws IOException {
+
+		// Lay the levels out one after another straight after the index.
+		long offset = HEADER_SIZE + 4L * levels.size();
+		int[] offsets = new int[levels.size()];
+		for (int number = 0; number < levels.size(); number++) {
+			Level level = levels.get(number);
+			if (level.getColumns() > 0xFFFF || level.getRows() > 0xFFFF)
+				throw new IOException("Level " + number + " is too big");
+			if (offset > Integer.MAX_VALUE)
+				throw new IOException("Too many levels for one pack");
+			offsets[number] = (int) offset;
+			offset += LEVEL_HEADER_SIZE + (level.getSize() + 1) / 2;
+		}
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(levels.size());
+			for (int number = 0; number < offsets.length; number++)
+				out.writeInt(offsets[number]);
+			for (Level level : levels) {
+				out.writeShort(level.getColumns());
+				out.writeShort(level.getRows());
+				boolean[] chests = new boolean[level.getSize()];
+				for (int chest : level.getChests())
+					chests[chest] = true;
+				for (int index = 0; index < level.getSize(); index += 2) {
+					int high = encode(level, index, chests[index]);
+					int low = index + 1 < level.getSize() ? encode(level,
+							index + 1, chests[index + 1]) : FLOOR;
+					out.writeByte(high << 4 | low);
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Method to read levels in the text format. Levels are separated by one
+	 * or more empty lines; a line of spaces is a row of floor.
+	 *
+	 * @param file
+	 *            Text file holding the levels.
+	 * @return The levels, in order.
+	 * @throws IOException
+	 *             If the file can not be read.
+	 */
+	public static List<Level> readText(File file) throws IOException {
+		List<Level> levels = new ArrayList<Level>();
+		for (String layout : readLayouts(file))
+			levels.add(new Level(layout));
+		return levels;
+	}
+
+	/**
+	 * Method to read the layouts of levels in the text format without parsing
+	 * them, so each one can be checked on its own.
+	 *
+	 * @param file
+	 *            Text file holding the levels.
+	 * @return The layout of each level, in order.
+	 * @throws IOException
+	 *             If the file can not be read.
+	 */
+	public static List<String> readLayouts(File file) throws IOException {
+		List<String> layouts = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			StringBuilder layout = new StringBuilder();
+			String line;
+			while ((line = in.readLine()) != null) {
+				// A line of spaces is open floor, so only an empty line ends
+				// a level.
+				if (line.isEmpty()) {
+					if (layout.length() > 0)
+						layouts.add(layout.toString());
+					layout.setLength(0);
+				} else {
+					if (layout.length() > 0)
+						layout.append('\n');
+					layout.append(line);
+				}
+			}
+			if (layout.length() > 0)
+				layouts.add(layout.toString());
+		} finally {
+			in.close();
+		}
+		return layouts;
+	}
+
+	/**
+	 * Method to check if a file name is that of a Sokoban collection.
+	 *
+	 * @param name
+	 *            Name of the file.
+	 * @return True if the file is a .xsb or .sok collection, false otherwise.
+	 */
+	static boolean isCollection(String name) {
+		String lower = name.toLowerCase();
+		return lower.endsWith(".xsb") || lower.endsWith(".sok");
+	}
+
+	/**
+	 * Main method to convert levels from the text format to a pack.
+	 *
+	 * @param args
+	 *            Text file to read and pack file to write. Files ending in
+	 *            .xsb or .sok are read as standard Sokoban collections. With
+	 *            only the pack file, the built in level is written.
+	 * @throws IOException
+	 *             If a file can not be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		List<Level> levels;
+		File output;
+		if (args.length == 2 && isCollection(args[0])) {
+			levels = new ArrayList<Level>();
+			SokobanReader reader = new SokobanReader(new File(args[0]));
+			try {
+				while (reader.hasNext())
+					levels.add(reader.next());
+			} finally {
+				reader.close();
+			}
+			output = new File(args[1]);
+		} else if (args.length == 2) {
+			levels = readText(new File(args[0]));
+			output = new File(args[1]);
+		} else if (args.length == 1) {
+			levels = new ArrayList<Level>();
+			levels.add(new Level(levelOne));
+			output = new File(args[0]);
+		} else {
+			System.err.println("Usage: LevelPack [levels.txt] levels.pack");
+			return;
+		}
+		write(levels, output);
+		System.out.println("Wrote " + levels.size() + " levels to " + output);
+	}
+}
@@ -0,0 +1,152 @@
+package treasurehunt;
+
+import java.util.Arrays;
+
+/**
+ * Class for the log of moves made in a level, for undo and redo.
+ *
+ * Each step takes three bits; two for the direction and one for whether a
+ * chest was pushed, so twenty one steps fit in a long. Steps past the current
+ * position are kept for redo until a new move is made.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class MoveLog {
+
+	/**
+	 * Bits used by each step.
+	 */
+	private static final int BITS = 3;
+	/**
+	 * Number of steps held in each long.
+	 */
+	private static final int PER_WORD = 64 / BITS;
+	/**
+	 * Bit of a step that is set when a chest was pushed.
+	 */
+	private static final int PUSH_BIT = 4;
+
+	/**
+	 * Packed steps.
+	 */
+	private long[] words = new long[4];
+	/**
+	 * Number of steps that have been made and not undone.
+	 */
+	private int position;
+	/**
+	 * Number of steps held, including ones that can be redone.
+	 */
+	private int length;
+
+	/**
+	 * Method to record a step. Any steps that could have been redone are
+	 * dropped.
+	 *
+	 * @param direction
+	 *            Direction of the step; top, right, bottom, or left.
+	 * @param pushed
+	 *            True if a chest was pushed.
+	 */
+	public void add(int direction, boolean pushed) {
+		int word = position / PER_WORD;
+		if (word == words.length)
+			words = Arrays.copyOf(words, words.length * 2);
+		int shift = (position % PER_WORD) * BITS;
+		long step = (direction - 1) | (pushed ? PUSH_BIT : 0);
+		words[word] = words[word] & ~(7L << shift) | step << shift;
+		position++;
+		length = position;
+	}
+
+	/**
+	 * Method to step back over the last step made.
+	 *
+	 * @return The step, or -1 if there is nothing to undo.
+	 */
+	public int undo() {
+		if (position == 0)
+			return -1;
+		return get(--position);
+	}
+
+	/**
+	 * Method to step forward over the last step undone.
+	 *
+	 * @return The step, or -1 if there is nothing to redo.
+	 */
+	public int redo() {
+		if (position == length)
+			return -1;
+		return get(position++);
+	}
+
+	/**
+	 * Method to forget every step.
+	 */
+	public void clear() {
+		position = 0;
+		length = 0;
+	}
+
+	/**
+	 * Method to read a step.
+	 *
+	 * @param index
+	 *            Number of the step, starting from zero.
+	 * @return The step.
+	 */
+	public int get(int index) {
+		return (int) (words[index / PER_WORD] >>> (index % PER_WORD) * BITS) & 7;
+	}
+
+	/**
+	 * Accessor for the number of steps made and not undone.
+	 *
+	 * @return Number of steps.
+	 */
+	public int size() {
+		return position;
+	}
+
+	/**
+	 * Method to check if a step can be undone.
+	 *
+	 * @return True if there is a step to undo, false otherwise.
+	 */
+	public boolean canUndo() {
+		return position > 0;
+	}
+
+	/**
+	 * Method to check if a step can be redone.
+	 *
+	 * @return True if there is a step to redo, false otherwise.
+	 */
+	public boolean canRedo() {
+		return position < length;
+	}
+
+	/**
+	 * Method to find the direction of a step.
+	 *
+	 * @param step
+	 *            Step from the log.
+	 * @return Direction of the step; top, right, bottom, or left.
+	 */
+	public static int direction(int step) {
+		return (step & 3) + 1;
+	}
+
+	/**
+	 * Method to check if a step pushed a chest.
+	 *
+	 * @param step
+	 *            Step from the log.
+	 * @return True if a chest was pushed, false otherwise.
+	 */
+	public static boolean pushed(int step) {
+		return (step & PUSH_BIT) != 0;
+	}
+}
@@ -0,0 +1,546 @@
+package treasurehunt;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Class to stream music to the audio mixer.
+ *
+ * A reader thread decodes the current track a little at a time into a small
+ * ring buffer, and the mixer thread takes a block from the ring each time it
+ * mixes, so only the ring is ever held in memory, however long the track.
+ * Tracks that are plain files are memory-mapped and read straight from the
+ * mapping; tracks inside a jar are read through an audio stream. A looping
+ * track goes straight from its last sample back to its first, with no gap.
+ * Switching track drops whatever of the old track is still in the ring.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class MusicStream implements Runnable {
+
+	/**
+	 * Number of sample frames the ring holds, about 370 milliseconds.
+	 */
+	public static final int RING_FRAMES = 16384;
+	/**
+	 * Number of source frames decoded at a time.
+	 */
+	private static final int CHUNK_FRAMES = 1024;
+
+	/**
+	 * Left and right samples, interleaved, waiting to be mixed.
+	 */
+	private final short[] ring = new short[RING_FRAMES * 2];
+	/**
+	 * Number of frames ever written to the ring.
+	 */
+	private volatile long written;
+	/**
+	 * Number of frames ever taken from the ring.
+	 */
+	private volatile long taken;
+	/**
+	 * Frame of the ring the current track starts at. Anything before it
+	 * belongs to an old track and is skipped.
+	 */
+	private volatile long trackStart;
+	/**
+	 * Name of the track asked for, or null for silence.
+	 */
+	private volatile String requested;
+	/**
+	 * Whether the track asked for loops.
+	 */
+	private volatile boolean requestedLoop;
+	/**
+	 * Number of times a track has been asked for or stopped.
+	 */
+	private volatile int generation;
+	/**
+	 * Sample rate the ring is played at.
+	 */
+	private final float rate;
+	/**
+	 * Class the tracks are loaded relative to.
+	 */
+	private final Class<?> owner;
+	/**
+	 * Reader thread, set when it starts.
+	 */
+	private volatile Thread reader;
+
+	/**
+	 * Constructor for a music stream. Starts the reader thread.
+	 *
+	 * @param rate
+	 *            Sample rate the mixer plays at.
+	 * @param owner
+	 *            Class the track names are resources of.
+	 */
+	public MusicStream(float rate, Class<?> owner) {
+		this.rate = rate;
+		this.owner = owner;
+		Thread thread = new Thread(this, "Music reader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Method to start a track from its beginning, in place of whatever is
+	 * playing. Safe to call from any thread; the track is opened by the
+	 * reader thread.
+	 *
+	 * @param track
+	 *            Name of the track's sound file.
+	 * @param loop
+	 *            True to play the track over and over.
+	 */
+	public void play(String track, boolean loop) {
+		synchronized (this) {
+			requested = track;
+			requestedLoop = loop;
+			generation++;
+		}
+		LockSupport.unpark(reader);
+	}
+
+	/**
+	 * Method to stop the music.
+	 */
+	public void stop() {
+		synchronized (this) {
+			requested = null;
+			generation++;
+		}
+		LockSupport.unpark(reader);
+	}
+
+	/**
+	 * Method for the mixer to add the next block of music to its mix. Adds
+	 * silence for any part the reader has not caught up with.
+	 *
+	 * @param mix
+	 *            Block being mixed, left and right interleaved.
+	 */
+	public void mixInto(int[] mix) {
+		long start = Math.max(taken, trackStart);
+		long available = written - start;
+		int frames = (int) Math.min(available, mix.length / 2);
+		for (int frame = 0; frame < frames; frame++) {
+			int at = (int) ((start + frame) & (RING_FRAMES - 1)) * 2;
+			mix[frame * 2] += ring[at];
+			mix[frame * 2 + 1] += ring[at + 1];
+		}
+		taken = start + frames;
+		LockSupport.unpark(reader);
+	}
+
+	/**
+	 * Method run by the reader thread. Keeps the ring topped up from the
+	 * current track, and opens a new one when asked.
+	 */
+	public void run() {
+		reader = Thread.currentThread();
+		int seen = -1;
+		Source source = null;
+		boolean loop = false;
+
+		// Resampling state; the frames either side of where the output is.
+		double phase = 2;
+		double step = 1;
+		short[] chunk = new short[CHUNK_FRAMES * 2];
+		int chunkFrames = 0;
+		int chunkPosition = 0;
+		int previousLeft = 0;
+		int previousRight = 0;
+		int nextLeft = 0;
+		int nextRight = 0;
+
+		while (true) {
+
+			// Switch track if one has been asked for.
+			if (generation != seen) {
+				String track;
+				synchronized (this) {
+					seen = generation;
+					track = requested;
+					loop = requestedLoop;
+				}
+				if (source != null)
+					source.close();
+				source = track == null ? null : open(track);
+				trackStart = written;
+				step = source == null ? 1 : source.rate / rate;
+				// Read two frames before the first output, so it starts on
+				// the track's first sample.
+				phase = 2;
+				chunkFrames = 0;
+				chunkPosition = 0;
+				nextLeft = 0;
+				nextRight = 0;
+			}
+
+			if (source == null || written - taken >= RING_FRAMES) {
+				LockSupport.parkNanos(5000000);
+				continue;
+			}
+
+			// Fill what room there is, then check for a new track again.
+			long room = RING_FRAMES - (written - taken);
+			long position = written;
+			for (long frame = 0; frame < room && source != null; frame++) {
+				while (phase >= 1) {
+					if (chunkPosition == chunkFrames) {
+						chunkFrames = source.read(chunk, CHUNK_FRAMES);
+						chunkPosition = 0;
+						if (chunkFrames <= 0 && loop && source.rewind())
+							chunkFrames = source.read(chunk, CHUNK_FRAMES);
+						if (chunkFrames <= 0) {
+							// The track has ended.
+							source.close();
+							source = null;
+							chunkFrames = 0;
+							break;
+						}
+					}
+					previousLeft = nextLeft;
+					previousRight = nextRight;
+					nextLeft = chunk[chunkPosition * 2];
+					nextRight = chunk[chunkPosition * 2 + 1];
+					chunkPosition++;
+					phase -= 1;
+				}
+				if (source == null)
+					break;
+				int at = (int) (position & (RING_FRAMES - 1)) * 2;
+				ring[at] = (short) (previousLeft + (nextLeft - previousLeft)
+						* phase);
+				ring[at + 1] = (short) (previousRight
+						+ (nextRight - previousRight) * phase);
+				position++;
+				phase += step;
+			}
+			written = position;
+		}
+	}
+
+	/**
+	 * Method to open a track, memory-mapping it if it is a plain file.
+	 *
+	 * @param track
+	 *            Name of the track's sound file.
+	 * @return Source of the track's samples, or null if it can not be
+	 *         opened.
+	 */
+	private Source open(String track) {
+		URL url = owner.getResource(track);
+		if (url == null) {
+			System.err.println("No music file " + track);
+			return null;
+		}
+		try {
+			if (url.getProtocol().equals("file")) {
+				Source mapped = MappedWav.open(url);
+				if (mapped != null)
+					return mapped;
+			}
+			return new StreamedWav(url);
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (UnsupportedAudioFileException e) {
+			e.printStackTrace();
+		} catch (URISyntaxException e) {
+			e.printStackTrace();
+		}
+		return null;
+	}
+
+	/**
+	 * Source of the samples of a track.
+	 */
+	private abstract static class Source {
+
+		/**
+		 * Sample rate of the track.
+		 */
+		float rate;
+
+		/**
+		 * Method to decode the next frames of the track.
+		 *
+		 * @param buffer
+		 *            Buffer for left and right samples, interleaved.
+		 * @param frames
+		 *            Most frames to decode.
+		 * @return Number of frames decoded, or 0 at the end of the track.
+		 */
+		abstract int read(short[] buffer, int frames);
+
+		/**
+		 * Method to go back to the start of the track.
+		 *
+		 * @return True if the track can be read again, false otherwise.
+		 */
+		abstract boolean rewind();
+
+		/**
+		 * Method to let go of the track.
+		 */
+		abstract void close();
+	}
+
+	/**
+	 * Source for a PCM wave file read through a memory mapping.
+	 */
+	private static class MappedWav extends Source {
+
+		/**
+		 * Mapping of the whole file.
+		 */
+		private final MappedByteBuffer buffer;
+		/**
+		 * Where the samples start in the file.
+		 */
+		private final int start;
+		/**
+		 * Where the samples end in the file.
+		 */
+		private final int end;
+		/**
+		 * Number of channels.
+		 */
+		private final int channels;
+		/**
+		 * Bytes in each sample; 1 or 2.
+		 */
+		private final int bytes;
+		/**
+		 * Where the next frame is in the file.
+		 */
+		private int position;
+
+		/**
+		 * Constructor for a mapped wave file.
+		 */
+		private MappedWav(MappedByteBuffer buffer, int start, int end,
+				int channels, int bytes, float rate) {
+			this.buffer = buffer;
+			this.start = start;
+			this.end = end;
+			this.channels = channels;
+			this.bytes = bytes;
+			this.rate = rate;
+			position = start;
+		}
+
+		/**
+		 * Method to map a wave file and find its samples.
+		 *
+		 * @param url
+		 *            Location of the file.
+		 * @return The source, or null if the file is not 8 or 16 bit PCM.
+		 * @throws IOException
+		 *             If the file can not be mapped.
+		 * @throws URISyntaxException
+		 *             If the location is not a file path.
+		 */
+		static MappedWav open(URL url) throws IOException, URISyntaxException {
+			FileChannel channel = FileChannel.open(Paths.get(url.toURI()),
+					StandardOpenOption.READ);
+			MappedByteBuffer buffer;
+			try {
+				// The mapping stays valid once the channel is closed.
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+						channel.size());
+			} finally {
+				channel.close();
+			}
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.limit() < 12 || buffer.getInt(0) != 0x46464952
+					|| buffer.getInt(8) != 0x45564157)
+				return null;
+
+			// Walk the chunks for the format and the samples.
+			int channels = 0;
+			int bits = 0;
+			int format = 0;
+			float rate = 0;
+			int at = 12;
+			while (at + 8 <= buffer.limit()) {
+				int id = buffer.getInt(at);
+				int size = buffer.getInt(at + 4);
+				if (id == 0x20746D66 && at + 24 <= buffer.limit()) {
+					format = buffer.getShort(at + 8);
+					channels = buffer.getShort(at + 10);
+					rate = buffer.getInt(at + 12);
+					bits = buffer.getShort(at + 22);
+				} else if (id == 0x61746164) {
+					if (format != 1 || (bits != 8 && bits != 16)
+							|| channels < 1)
+						return null;
+					int end = (int) Math.min(buffer.limit(), (long) at + 8
+							+ (size & 0xFFFFFFFFL));
+					return new MappedWav(buffer, at + 8, end, channels,
+							bits / 8, rate);
+				}
+				// Chunk sizes are unsigned and padded to even; step in long so
+				// a huge size runs off the end instead of wrapping around.
+				long next = (long) at + 8 + (size & 0xFFFFFFFFL) + (size & 1);
+				if (next > buffer.limit())
+					return null;
+				at = (int) next;
+			}
+			return null;
+		}
+
+		int read(short[] samples, int frames) {
+			int frameSize = channels * bytes;
+			int count = Math.min(frames, (end - position) / frameSize);
+			int right = channels > 1 ? bytes : 0;
+			for (int frame = 0; frame < count; frame++) {
+				samples[frame * 2] = sample(position);
+				samples[frame * 2 + 1] = sample(position + right);
+				position += frameSize;
+			}
+			return count;
+		}
+
+		/**
+		 * Method to read one sample as 16 bit.
+		 *
+		 * @param at
+		 *            Where the sample is in the file.
+		 * @return The sample.
+		 */
+		private short sample(int at) {
+			if (bytes == 2)
+				return buffer.getShort(at);
+			return (short) (((buffer.get(at) & 0xFF) - 128) << 8);
+		}
+
+		boolean rewind() {
+			position = start;
+			return true;
+		}
+
+		void close() {
+		}
+	}
+
+	/**
+	 * Source for a track read through an audio stream, for tracks that are
+	 * not plain files.
+	 */
+	private static class StreamedWav extends Source {
+
+		/**
+		 * Location of the track, to open it again when it loops.
+		 */
+		private final URL url;
+		/**
+		 * Stream of 16 bit little-endian samples.
+		 */
+		private AudioInputStream in;
+		/**
+		 * Number of channels.
+		 */
+		private int channels;
+		/**
+		 * Bytes read from the stream.
+		 */
+		private byte[] bytes = new byte[0];
+
+		/**
+		 * Constructor for a streamed track.
+		 *
+		 * @param url
+		 *            Location of the track.
+		 * @throws IOException
+		 *             If the track can not be read.
+		 * @throws UnsupportedAudioFileException
+		 *             If the track is not a sound file Java can read.
+		 */
+		StreamedWav(URL url) throws IOException, UnsupportedAudioFileException {
+			this.url = url;
+			openStream();
+		}
+
+		/**
+		 * Method to open the track from its start.
+		 */
+		private void openStream() throws IOException,
+				UnsupportedAudioFileException {
+			AudioInputStream source = AudioSystem
+					.getAudioInputStream(new BufferedInputStream(url
+							.openStream()));
+			AudioFormat format = source.getFormat();
+			channels = format.getChannels();
+			rate = format.getSampleRate();
+			in = AudioSystem.getAudioInputStream(new AudioFormat(rate, 16,
+					channels, true, false), source);
+		}
+
+		int read(short[] samples, int frames) {
+			int frameSize = channels * 2;
+			if (bytes.length < frames * frameSize)
+				bytes = new byte[frames * frameSize];
+			int count = 0;
+			try {
+				// Fill whole frames, unless the stream ends first.
+				int got = 0;
+				while (got < frames * frameSize) {
+					int read = in.read(bytes, got, frames * frameSize - got);
+					if (read < 0)
+						break;
+					got += read;
+				}
+				count = got / frameSize;
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			int right = channels > 1 ? 2 : 0;
+			for (int frame = 0; frame < count; frame++) {
+				int at = frame * frameSize;
+				samples[frame * 2] = (short) ((bytes[at] & 0xFF) | bytes[at + 1] << 8);
+				samples[frame * 2 + 1] = (short) ((bytes[at + right] & 0xFF) | bytes[at
+						+ right + 1] << 8);
+			}
+			return count;
+		}
+
+		boolean rewind() {
+			close();
+			try {
+				openStream();
+				return true;
+			} catch (IOException e) {
+				e.printStackTrace();
+			} catch (UnsupportedAudioFileException e) {
+				e.printStackTrace();
+			}
+			return false;
+		}
+
+		void close() {
+			try {
+				in.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
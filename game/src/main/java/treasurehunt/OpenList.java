@@ -0,0 +1,311 @@
+package treasurehunt;
+
+import java.util.Arrays;
+
+/**
+ * Class for the nodes kept by an A* search.
+ *
+ * Every node is packed into arrays rather than kept as objects: the chest
+ * bits, player and hash of its state, the pushes made to reach it, its
+ * estimate, its parent and the push from the parent. The nodes still to be
+ * expanded are ordered in a binary heap of node numbers, fewest pushes plus
+ * estimate first. The most nodes kept is fixed when the list is made; once
+ * it is full no more can be added, so a search can give up instead of
+ * running out of memory.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class OpenList {
+
+	/**
+	 * Fewest nodes room is made for at first.
+	 */
+	private static final int INITIAL = 1024;
+
+	/**
+	 * Number of longs in the chest bits of each state.
+	 */
+	private final int words;
+	/**
+	 * Most nodes that can be kept.
+	 */
+	private final int capacity;
+	/**
+	 * Chest bits of each node, words longs apiece.
+	 */
+	private long[] bits;
+	/**
+	 * Zobrist hash of each node.
+	 */
+	private long[] hashes;
+	/**
+	 * Player cell of each node.
+	 */
+	private int[] players;
+	/**
+	 * Pushes made to reach each node.
+	 */
+	private int[] pushes;
+	/**
+	 * Estimate of the pushes left from each node.
+	 */
+	private int[] estimates;
+	/**
+	 * Parent of each node, or -1 for the start.
+	 */
+	private int[] parents;
+	/**
+	 * Push from the parent to each node; chest cell times 8 plus direction.
+	 */
+	private int[] moves;
+	/**
+	 * Number of nodes kept.
+	 */
+	private int size;
+	/**
+	 * Heap of the nodes still to be expanded.
+	 */
+	private int[] heap;
+	/**
+	 * Number of nodes in the heap.
+	 */
+	private int open;
+
+	/**
+	 * Constructor for an empty list.
+	 *
+	 * @param words
+	 *            Number of longs in the chest bits of each state.
+	 * @param capacity
+	 *            Most nodes to keep.
+	 */
+	public OpenList(int words, long capacity) {
+		this.words = words;
+		// Each array has to be indexable with an int.
+		this.capacity = (int) Math.max(1, Math.min(capacity,
+				(Integer.MAX_VALUE - 8) / Math.max(1, words)));
+		int room = Math.min(this.capacity, INITIAL);
+		bits = new long[room * words];
+		hashes = new long[room];
+		players = new int[room];
+		pushes = new int[room];
+		estimates = new int[room];
+		parents = new int[room];
+		moves = new int[room];
+		heap = new int[room];
+	}
+
+	/**
+	 * Method to find how much memory each node takes.
+	 *
+	 * @param words
+	 *            Number of longs in the chest bits of each state.
+	 * @return Bytes taken by one node once the arrays have grown to hold it.
+	 */
+	public static long bytesPerNode(int words) {
+		// Chest bits and hash, then player, pushes, estimate, parent, move
+		// and heap slot.
+		return 8L * words + 8 + 4 * 6;
+	}
+
+	/**
+	 * Method to check if no more nodes can be added.
+	 *
+	 * @return True if the list holds as many nodes as it can, false
+	 *         otherwise.
+	 */
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/**
+	 * Method to check if every node has been expanded.
+	 *
+	 * @return True if no nodes are waiting, false otherwise.
+	 */
+	public boolean isEmpty() {
+		return open == 0;
+	}
+
+	/**
+	 * Accessor for the number of nodes kept.
+	 *
+	 * @return Number of nodes added so far.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method to add a node and queue it to be expanded. The list must not be
+	 * full.
+	 *
+	 * @param state
+	 *            State of the node.
+	 * @param pushCount
+	 *            Pushes made to reach it.
+	 * @param estimate
+	 *            Estimate of the pushes left.
+	 * @param parent
+	 *            Node it was reached from, or -1 for the start.
+	 * @param chest
+	 *            Cell of the chest pushed from the parent.
+	 * @param direction
+	 *            Direction it was pushed.
+	 * @return Number of the new node.
+	 */
+	public int add(State state, int pushCount, int estimate, int parent,
+			int chest, int direction) {
+		if (size == capacity)
+			throw new IllegalStateException("Open list is full");
+		if (size == hashes.length)
+			grow();
+		int node = size++;
+		state.save(bits, node * words);
+		hashes[node] = state.getHash();
+		players[node] = state.getPlayer();
+		pushes[node] = pushCount;
+		estimates[node] = estimate;
+		parents[node] = parent;
+		moves[node] = chest * 8 + direction;
+
+		// Sift the new node up the heap.
+		int slot = open++;
+		while (slot > 0) {
+			int above = (slot - 1) >>> 1;
+			if (!before(node, heap[above]))
+				break;
+			heap[slot] = heap[above];
+			slot = above;
+		}
+		heap[slot] = node;
+		return node;
+	}
+
+	/**
+	 * Method to take the next node to expand off the heap.
+	 *
+	 * @return Number of the node with the fewest pushes plus estimate.
+	 */
+	public int poll() {
+		int first = heap[0];
+		int last = heap[--open];
+		int slot = 0;
+		// Sift the last node down from the top.
+		while (true) {
+			int child = slot * 2 + 1;
+			if (child >= open)
+				break;
+			if (child + 1 < open && before(heap[child + 1], heap[child]))
+				child++;
+			if (!before(heap[child], last))
+				break;
+			heap[slot] = heap[child];
+			slot = child;
+		}
+		if (open > 0)
+			heap[slot] = last;
+		return first;
+	}
+
+	/**
+	 * Method to check if one node should be expanded before another.
+	 *
+	 * @param node
+	 *            First node.
+	 * @param other
+	 *            Second node.
+	 * @return True if the first node has a lower total, or the same total
+	 *         with more pushes made.
+	 */
+	private boolean before(int node, int other) {
+		int total = pushes[node] + estimates[node];
+		int otherTotal = pushes[other] + estimates[other];
+		if (total != otherTotal)
+			return total < otherTotal;
+		return pushes[node] > pushes[other];
+	}
+
+	/**
+	 * Method to make room for more nodes, up to the capacity.
+	 */
+	private void grow() {
+		int room = (int) Math.min(capacity, hashes.length * 2L);
+		bits = Arrays.copyOf(bits, room * words);
+		hashes = Arrays.copyOf(hashes, room);
+		players = Arrays.copyOf(players, room);
+		pushes = Arrays.copyOf(pushes, room);
+		estimates = Arrays.copyOf(estimates, room);
+		parents = Arrays.copyOf(parents, room);
+		moves = Arrays.copyOf(moves, room);
+		heap = Arrays.copyOf(heap, room);
+	}
+
+	/**
+	 * Method to copy the state of a node into a state object.
+	 *
+	 * @param node
+	 *            Number of the node.
+	 * @param state
+	 *            State to overwrite.
+	 */
+	public void load(int node, State state) {
+		state.load(bits, node * words, players[node], hashes[node]);
+	}
+
+	/**
+	 * Accessor for the hash of a node's state.
+	 *
+	 * @param node
+	 *            Number of the node.
+	 * @return Zobrist hash of the state.
+	 */
+	public long getHash(int node) {
+		return hashes[node];
+	}
+
+	/**
+	 * Accessor for the pushes made to reach a node.
+	 *
+	 * @param node
+	 *            Number of the node.
+	 * @return Pushes from the start.
+	 */
+	public int getPushes(int node) {
+		return pushes[node];
+	}
+
+	/**
+	 * Accessor for the parent of a node.
+	 *
+	 * @param node
+	 *            Number of the node.
+	 * @return Node it was reached from, or -1 for the start.
+	 */
+	public int getParent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * Accessor for the chest pushed to reach a node.
+	 *
+	 * @param node
+	 *            Number of the node.
+	 * @return Cell the chest was on before the push.
+	 */
+	public int getChest(int node) {
+		return moves[node] >> 3;
+	}
+
+	/**
+	 * Accessor for the direction of the push that reached a node.
+	 *
+	 * @param node
+	 *            Number of the node.
+	 * @return Direction the chest was pushed.
+	 */
+	public int getDirection(int node) {
+		return moves[node] & 7;
+	}
+}
@@ -1,6 +1,4 @@
-
-
-import javax.swing.ImageIcon;
+package treasurehunt;
 
 /**
  * Class for the Player.
@@ -12,6 +10,11 @@ import javax.swing.ImageIcon;
  */
 public class Player extends Sprite{
 	
+	/**
+	 * File name of the player image.
+	 */
+	public static final String IMAGE = "player.png";
+
 	/**
 	 * Constructor for the player.
 	 * @param xPos X coordinate of the player.
@@ -20,8 +23,7 @@ public class Player extends Sprite{
 	public Player(int xPos, int yPos){
 		
 		super(xPos, yPos);
-		ImageIcon ii = new ImageIcon(this.getClass().getResource("player.png"));
-		image = ii.getImage();
+		image = ImageCache.get(IMAGE);
 	}
 	
 	/**
@@ -0,0 +1,394 @@
+package treasurehunt;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Class for a recording of the keys pressed while playing a level.
+ *
+ * Each event is the action and the time it happened, in milliseconds of game
+ * clock since the level was started. Events are stored as one varint holding
+ * the time since the event before shifted up three bits, with the action in
+ * the low bits, so most take one or two bytes. A restart starts the clock
+ * again from zero. The recording starts with a short header holding the
+ * magic number, the format version and the fingerprint of the level, which
+ * covers every cell as well as where the chests and player start, so a
+ * recording is not played against the wrong level.
+ *
+ * Playing the events back through a Simulation, ticking the clock between
+ * them, gives the same game every time.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Replay implements Commons {
+
+	/**
+	 * Magic number at the start of every recording, "THRP".
+	 */
+	public static final int MAGIC = 0x54485250;
+	/**
+	 * Version of the format written by this class.
+	 */
+	public static final int VERSION = 2;
+	/**
+	 * Size, in bytes, of the header.
+	 */
+	private static final int HEADER_SIZE = 13;
+
+	/**
+	 * Actions. The four moves use the collision directions.
+	 */
+	public static final int UNDO = 5;
+	public static final int REDO = 6;
+	public static final int RESTART = 7;
+
+	/**
+	 * Encoded recording; the header and then the events.
+	 */
+	private byte[] data;
+	/**
+	 * Number of bytes of data used.
+	 */
+	private int length;
+	/**
+	 * Game time, in milliseconds since the level started, of the last event.
+	 */
+	private long last;
+
+	/**
+	 * Constructor for a new recording of a level.
+	 *
+	 * @param level
+	 *            Level being played.
+	 */
+	public Replay(Level level) {
+		data = new byte[256];
+		long fingerprint = level.getFingerprint();
+		writeInt(MAGIC);
+		data[length++] = VERSION;
+		writeInt((int) (fingerprint >>> 32));
+		writeInt((int) fingerprint);
+	}
+
+	/**
+	 * Constructor for a recording that has been saved.
+	 *
+	 * @param bytes
+	 *            Encoded recording. The array is kept, not copied.
+	 * @throws IOException
+	 *             If the bytes are not a recording.
+	 */
+	public Replay(byte[] bytes) throws IOException {
+		if (bytes.length < HEADER_SIZE || readInt(bytes, 0) != MAGIC)
+			throw new IOException("Not a replay");
+		if (bytes[4] != VERSION)
+			throw new IOException("Replay is version " + bytes[4]
+					+ ", expected " + VERSION);
+		data = bytes;
+		length = bytes.length;
+	}
+
+	/**
+	 * Method to record an action.
+	 *
+	 * @param time
+	 *            Game time, in milliseconds since the level started.
+	 * @param action
+	 *            A direction of movement, UNDO, REDO or RESTART.
+	 */
+	public void record(long time, int action) {
+		long delta = Math.max(0, time - last);
+		last = Math.max(last, time);
+		if (action == RESTART)
+			last = 0;
+		if (length + 10 > data.length)
+			data = Arrays.copyOf(data, data.length * 2);
+		long value = delta << 3 | action;
+		while ((value & ~0x7FL) != 0) {
+			data[length++] = (byte) (value & 0x7F | 0x80);
+			value >>>= 7;
+		}
+		data[length++] = (byte) value;
+	}
+
+	/**
+	 * Method to check if the recording was made on a level.
+	 *
+	 * @param level
+	 *            Level to check.
+	 * @return True if the level has the fingerprint of the recorded one.
+	 */
+	public boolean isFor(Level level) {
+		long fingerprint = (long) readInt(data, 5) << 32
+				| (readInt(data, 9) & 0xFFFFFFFFL);
+		return fingerprint == level.getFingerprint();
+	}
+
+	/**
+	 * Method to start reading the events from the beginning.
+	 *
+	 * @return Cursor over the events.
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Method to get the encoded recording.
+	 *
+	 * @return Copy of the bytes of the recording.
+	 */
+	public byte[] toByteArray() {
+		return Arrays.copyOf(data, length);
+	}
+
+	/**
+	 * Accessor for the size of the recording.
+	 *
+	 * @return Number of bytes in the recording.
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * Method to save the recording.
+	 *
+	 * @param file
+	 *            File to write to.
+	 * @throws IOException
+	 *             If the file can not be written.
+	 */
+	public void write(File file) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(data, 0, length);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Method to load a saved recording.
+	 *
+	 * @param file
+	 *            File to read.
+	 * @return The recording.
+	 * @throws IOException
+	 *             If the file can not be read or is not a recording.
+	 */
+	public static Replay read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return new Replay(in.readAllBytes());
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Method to play a recording through a simulation as fast as possible.
+	 * The simulation is reset first.
+	 *
+	 * @param simulation
+	 *            Simulation of the recorded level.
+	 * @return True if the recording solves the level, false otherwise.
+	 */
+	public boolean play(Simulation simulation) {
+		simulation.reset();
+		Cursor events = cursor();
+		while (events.next()) {
+			if (events.getAction() == RESTART) {
+				simulation.reset();
+				continue;
+			}
+			simulation.tick(events.getTime() - elapsed(simulation));
+			apply(simulation, events.getAction());
+		}
+		return simulation.isSolved();
+	}
+
+	/**
+	 * Method to check that a recording solves a level.
+	 *
+	 * @param level
+	 *            Level the recording claims to solve.
+	 * @return True if the recording is for the level and solves it before
+	 *         the time runs out, false otherwise.
+	 */
+	public boolean verify(Level level) {
+		return isFor(level) && play(new Simulation(level));
+	}
+
+	/**
+	 * Method to find how much game time has passed in a simulation.
+	 *
+	 * @param simulation
+	 *            Simulation being played.
+	 * @return Time, in milliseconds, since the level started.
+	 */
+	static long elapsed(Simulation simulation) {
+		return GAME_TIME - simulation.getTimeRemaining();
+	}
+
+	/**
+	 * Method to apply one recorded action, other than a restart, to a
+	 * simulation.
+	 *
+	 * @param simulation
+	 *            Simulation being played.
+	 * @param action
+	 *            A direction of movement, UNDO or REDO.
+	 */
+	static void apply(Simulation simulation, int action) {
+		if (action == UNDO)
+			simulation.undo();
+		else if (action == REDO)
+			simulation.redo();
+		else
+			simulation.move(action);
+	}
+
+	/**
+	 * Method to add a big-endian int to the recording.
+	 *
+	 * @param value
+	 *            Value to add.
+	 */
+	private void writeInt(int value) {
+		data[length++] = (byte) (value >>> 24);
+		data[length++] = (byte) (value >>> 16);
+		data[length++] = (byte) (value >>> 8);
+		data[length++] = (byte) value;
+	}
+
+	/**
+	 * Method to read a big-endian int.
+	 *
+	 * @param bytes
+	 *            Bytes to read from.
+	 * @param offset
+	 *            Where the int starts.
+	 * @return The int.
+	 */
+	private static int readInt(byte[] bytes, int offset) {
+		return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+				| (bytes[offset + 2] & 0xFF) << 8 | bytes[offset + 3] & 0xFF;
+	}
+
+	/**
+	 * Class to read the events of a recording in order.
+	 */
+	public class Cursor {
+
+		/**
+		 * Where the next event starts.
+		 */
+		private int position = HEADER_SIZE;
+		/**
+		 * Game time of the current event.
+		 */
+		private long time;
+		/**
+		 * Action of the current event.
+		 */
+		private int action;
+
+		/**
+		 * Method to move on to the next event.
+		 *
+		 * @return True if there was another event, false at the end.
+		 */
+		public boolean next() {
+			if (position >= length)
+				return false;
+			long value = 0;
+			int shift = 0;
+			byte item;
+			do {
+				if (position >= length || shift > 63)
+					return false;
+				item = data[position++];
+				value |= (long) (item & 0x7F) << shift;
+				shift += 7;
+			} while (item < 0);
+			time += value >>> 3;
+			action = (int) (value & 7);
+			if (action == RESTART)
+				time = 0;
+			return true;
+		}
+
+		/**
+		 * Accessor for the time of the current event.
+		 *
+		 * @return Game time, in milliseconds since the level last started.
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Accessor for the action of the current event.
+		 *
+		 * @return A direction of movement, UNDO, REDO or RESTART.
+		 */
+		public int getAction() {
+			return action;
+		}
+	}
+
+	/**
+	 * Main method to check saved recordings against a level.
+	 *
+	 * @param args
+	 *            Recording files to check. The level is the built in one,
+	 *            unless "--pack file number" or "--xsb file number" come
+	 *            first.
+	 * @throws IOException
+	 *             If a file can not be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		Level level = new Level(levelOne);
+		int first = 0;
+		if (args.length >= 3 && args[0].equals("--pack")) {
+			LevelPack pack = new LevelPack(new File(args[1]));
+			try {
+				level = pack.get(Integer.parseInt(args[2]));
+			} finally {
+				pack.close();
+			}
+			first = 3;
+		} else if (args.length >= 3 && args[0].equals("--xsb")) {
+			level = SokobanReader.read(new File(args[1]),
+					Integer.parseInt(args[2]));
+			first = 3;
+		}
+
+		Simulation simulation = new Simulation(level);
+		int passed = 0;
+		long start = System.nanoTime();
+		for (int arg = first; arg < args.length; arg++) {
+			Replay replay;
+			try {
+				replay = read(new File(args[arg]));
+			} catch (IOException e) {
+				System.out.println(args[arg] + ": " + e.getMessage());
+				continue;
+			}
+			boolean ok = replay.isFor(level) && replay.play(simulation);
+			if (ok)
+				passed++;
+			System.out.println(args[arg] + ": " + (ok ? "solved" : "not solved"));
+		}
+		long micros = (System.nanoTime() - start) / 1000;
+		System.out.println(passed + " of " + (args.length - first)
+				+ " solved in " + micros + " us");
+	}
+}
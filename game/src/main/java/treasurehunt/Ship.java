@@ -1,6 +1,4 @@
-
-
-import javax.swing.ImageIcon;
+package treasurehunt;
 
 /**
  * Basic class for Ships.
@@ -12,6 +10,11 @@ import javax.swing.ImageIcon;
  */
 public class Ship extends Sprite{
 	
+	/**
+	 * File name of the ship image.
+	 */
+	public static final String IMAGE = "ship.png";
+
 	/**
 	 * Constructor for ships.
 	 * @param xPos X coordinate of the ship.
@@ -20,7 +23,6 @@ public class Ship extends Sprite{
 	public Ship(int xPos, int yPos){
 		
 		super(xPos, yPos);
-		ImageIcon ii = new ImageIcon(this.getClass().getResource("ship.png"));
-		image = ii.getImage();
+		image = ImageCache.get(IMAGE);
 	}
 }
@@ -0,0 +1,347 @@
+package treasurehunt;
+
+/**
+ * Class for the rules of the game.
+ *
+ * Keeps the state of a level being played; where the player and chests are,
+ * the score and the time remaining. Has no display or sound, so the game can
+ * be stepped without a screen.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Simulation implements Commons {
+
+	/**
+	 * Result of a move that was blocked.
+	 */
+	public static final int BLOCKED = 0;
+	/**
+	 * Result of a move where the player walked.
+	 */
+	public static final int MOVED = 1;
+	/**
+	 * Result of a move where the player pushed a chest.
+	 */
+	public static final int PUSHED = 2;
+
+	/**
+	 * Layout of the level being played.
+	 */
+	private final Level level;
+	/**
+	 * State the level starts in.
+	 */
+	private final State start;
+	/**
+	 * Where the player and chests are now.
+	 */
+	private final State state;
+	/**
+	 * Steps made, for undo and redo.
+	 */
+	private final MoveLog log = new MoveLog();
+	/**
+	 * Chests that can no longer reach a goal zone.
+	 */
+	private final Deadlocks deadlocks;
+	/**
+	 * Number of chests on goal zones.
+	 */
+	private int score;
+	/**
+	 * Time, in milliseconds, left to finish the level.
+	 */
+	private long timeRemaining;
+	/**
+	 * Boolean to check if all the goal zones are filled.
+	 */
+	private boolean solved;
+	/**
+	 * Boolean to check if the time has run out.
+	 */
+	private boolean outOfTime;
+
+	/**
+	 * Constructor for a simulation.
+	 *
+	 * @param level
+	 *            Layout of the level to play.
+	 */
+	public Simulation(Level level) {
+		this.level = level;
+		start = level.createState();
+		state = start.copy();
+		deadlocks = new Deadlocks(level);
+		reset();
+	}
+
+	/**
+	 * Method to put the level back to how it started.
+	 */
+	public void reset() {
+		state.copyFrom(start);
+		log.clear();
+		timeRemaining = GAME_TIME;
+		solved = false;
+		outOfTime = false;
+		score = state.countChests(level.getGoals());
+		deadlocks.scan(state);
+	}
+
+	/**
+	 * Method to move the player one cell, pushing a chest if there is one in
+	 * the way.
+	 *
+	 * @param direction
+	 *            Direction to move; top, right, bottom, or left.
+	 * @return BLOCKED, MOVED or PUSHED.
+	 */
+	public int move(int direction) {
+		int result = step(direction);
+		if (result != BLOCKED)
+			log.add(direction, result == PUSHED);
+		return result;
+	}
+
+	/**
+	 * Method to take back the last move.
+	 *
+	 * @return The step taken back, to read with MoveLog.direction and
+	 *         MoveLog.pushed, or -1 if there is nothing to undo.
+	 */
+	public int undo() {
+		if (isFinished())
+			return -1;
+		int step = log.undo();
+		if (step < 0)
+			return -1;
+
+		// Step the player back the way they came, pulling the chest if the
+		// move pushed one.
+		int direction = MoveLog.direction(step);
+		int player = state.getPlayer();
+		int back = level.neighbour(player, Level.opposite(direction));
+		if (MoveLog.pushed(step)) {
+			int chest = level.neighbour(player, direction);
+			state.moveChest(chest, player);
+			if (level.isGoal(chest))
+				score--;
+			if (level.isGoal(player))
+				score++;
+		}
+		state.setPlayer(back);
+		// Taking back a push can free chests, so look at them all again.
+		if (MoveLog.pushed(step))
+			deadlocks.scan(state);
+		return step;
+	}
+
+	/**
+	 * Method to make the last move taken back again.
+	 *
+	 * @return The step made again, to read with MoveLog.direction and
+	 *         MoveLog.pushed, or -1 if there is nothing to redo.
+	 */
+	public int redo() {
+		if (isFinished())
+			return -1;
+		int step = log.redo();
+		if (step >= 0)
+			step(MoveLog.direction(step));
+		return step;
+	}
+
+	/**
+	 * Accessor for the moves made.
+	 *
+	 * @return Log of the moves made in the level.
+	 */
+	public MoveLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Method to move the player without logging the move.
+	 *
+	 * @param direction
+	 *            Direction to move; top, right, bottom, or left.
+	 * @return BLOCKED, MOVED or PUSHED.
+	 */
+	private int step(int direction) {
+
+		int player = state.getPlayer();
+		if (isFinished() || player < 0)
+			return BLOCKED;
+
+		int target = level.neighbour(player, direction);
+		if (target < 0 || level.isBlocked(target))
+			return BLOCKED;
+
+		// Walk if nothing is in the way.
+		if (!state.hasChest(target)) {
+			state.setPlayer(target);
+			return MOVED;
+		}
+
+		// Otherwise the chest has to have somewhere to go.
+		int beyond = level.neighbour(target, direction);
+		if (beyond < 0 || level.isBlocked(beyond) || state.hasChest(beyond))
+			return BLOCKED;
+
+		state.moveChest(target, beyond);
+		state.setPlayer(target);
+
+		if (level.isGoal(target))
+			score--;
+		if (level.isGoal(beyond))
+			score++;
+		deadlocks.pushed(state, target, beyond);
+		// If all goal squares are filled, then the player is finished.
+		if (state.covers(level.getGoals()))
+			solved = true;
+		return PUSHED;
+	}
+
+	/**
+	 * Method to count down the clock.
+	 *
+	 * @param millis
+	 *            Time, in milliseconds, that has passed.
+	 */
+	public void tick(long millis) {
+		if (isFinished())
+			return;
+		timeRemaining = Math.max(0, timeRemaining - millis);
+		// If time remaining is 0, then the player is out of time.
+		if (timeRemaining == 0)
+			outOfTime = true;
+	}
+
+	/**
+	 * Accessor for the level.
+	 *
+	 * @return Layout of the level being played.
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Accessor for the player cell.
+	 *
+	 * @return Cell the player is on, or -1 if there is no player.
+	 */
+	public int getPlayer() {
+		return state.getPlayer();
+	}
+
+	/**
+	 * Accessor for the Zobrist hash of the current state.
+	 *
+	 * @return Hash of where the player and chests are now.
+	 */
+	public long getHash() {
+		return state.getHash();
+	}
+
+	/**
+	 * Method to get a copy of the current state.
+	 *
+	 * @return Copy of where the player and chests are now.
+	 */
+	public State getState() {
+		return state.copy();
+	}
+
+	/**
+	 * Method to jump to another state of the same level. The clock is not
+	 * changed, and the moves made so far can no longer be undone.
+	 *
+	 * @param other
+	 *            State to copy the player and chests from.
+	 */
+	public void setState(State other) {
+		state.copyFrom(other);
+		log.clear();
+		score = state.countChests(level.getGoals());
+		solved = state.covers(level.getGoals());
+		deadlocks.scan(state);
+	}
+
+	/**
+	 * Method to check if a cell has a chest on it.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return True if there is a chest on the cell, false otherwise.
+	 */
+	public boolean hasChest(int index) {
+		return state.hasChest(index);
+	}
+
+	/**
+	 * Method to check if some chest can no longer reach a goal zone, so the
+	 * level can not be solved without undoing.
+	 *
+	 * @return True if a deadlock was found, false otherwise.
+	 */
+	public boolean isDeadlocked() {
+		return deadlocks.isDeadlocked();
+	}
+
+	/**
+	 * Accessor for the deadlocked chests.
+	 *
+	 * @return Cells of the chests that can no longer reach a goal zone. Not
+	 *         to be changed.
+	 */
+	public int[] getDeadlocked() {
+		return deadlocks.getStuck();
+	}
+
+	/**
+	 * Accessor for the score.
+	 *
+	 * @return Number of chests on goal zones.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Accessor for the time remaining.
+	 *
+	 * @return Time, in milliseconds, left to finish the level.
+	 */
+	public long getTimeRemaining() {
+		return timeRemaining;
+	}
+
+	/**
+	 * Method to check if all the goal zones are filled.
+	 *
+	 * @return True if the level is solved, false otherwise.
+	 */
+	public boolean isSolved() {
+		return solved;
+	}
+
+	/**
+	 * Method to check if the time has run out.
+	 *
+	 * @return True if the player is out of time, false otherwise.
+	 */
+	public boolean isOutOfTime() {
+		return outOfTime;
+	}
+
+	/**
+	 * Method to check if the game is over, either way.
+	 *
+	 * @return True if the level is solved or out of time, false otherwise.
+	 */
+	public boolean isFinished() {
+		return solved || outOfTime;
+	}
+}
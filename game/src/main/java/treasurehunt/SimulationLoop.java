@@ -0,0 +1,96 @@
+package treasurehunt;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class for the simulation thread.
+ *
+ * Runs the board's simulation on its own thread at a fixed rate. Each tick
+ * the board takes the keys that arrived since the last one, in order, and
+ * the clock is moved on by the real time that has passed. Nothing here waits
+ * on Swing or on drawing, so keys are handled on time however long a frame
+ * takes to draw.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class SimulationLoop implements Runnable {
+
+	/**
+	 * Number of ticks per second.
+	 */
+	public static final int TICK_RATE = 200;
+	/**
+	 * Length, in nanoseconds, of one tick.
+	 */
+	private static final long TICK = 1000000000L / TICK_RATE;
+
+	/**
+	 * Board being simulated.
+	 */
+	private final Board board;
+	/**
+	 * Boolean to check if the loop should keep running.
+	 */
+	private volatile boolean running = false;
+	/**
+	 * Thread running the loop.
+	 */
+	private Thread thread;
+
+	/**
+	 * Constructor for the simulation loop.
+	 *
+	 * @param board
+	 *            Board to simulate.
+	 */
+	public SimulationLoop(Board board) {
+		this.board = board;
+	}
+
+	/**
+	 * Method to start the loop.
+	 */
+	public void start() {
+		running = true;
+		thread = new Thread(this, "simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Method to stop the loop, waiting for the tick in progress to finish.
+	 */
+	public void stop() {
+		running = false;
+		if (thread != null && thread != Thread.currentThread()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Method run by the loop thread.
+	 */
+	public void run() {
+		long previous = System.nanoTime();
+		long next = previous + TICK;
+		while (running) {
+			long now = System.nanoTime();
+			if (now < next) {
+				LockSupport.parkNanos(next - now);
+				continue;
+			}
+			// The clock moves on by whole milliseconds; the rest is carried
+			// over to the next tick so it keeps real time.
+			long millis = (now - previous) / 1000000;
+			previous += millis * 1000000;
+			board.update(millis);
+			// After a stall, carry on from now rather than catching up.
+			next = Math.max(next + TICK, now);
+		}
+	}
+}
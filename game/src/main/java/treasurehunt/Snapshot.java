@@ -0,0 +1,164 @@
+package treasurehunt;
+
+/**
+ * Class for a copy of the game as it stood at one moment, for drawing.
+ *
+ * The simulation thread makes a new snapshot each time the game changes and
+ * publishes it, and the board is drawn from the latest one, so drawing never
+ * waits on the simulation or the other way round. A snapshot is never
+ * changed once it is made.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class Snapshot {
+
+	/**
+	 * Layout of the level.
+	 */
+	private final Level level;
+	/**
+	 * Where the player and chests were. Never changed.
+	 */
+	private final State state;
+	/**
+	 * Time, in milliseconds, that was left.
+	 */
+	private final long timeRemaining;
+	/**
+	 * Number of chests that were on goal zones.
+	 */
+	private final int score;
+	/**
+	 * Boolean to check if the game was over.
+	 */
+	private final boolean finished;
+	/**
+	 * Boolean to check if the time had run out.
+	 */
+	private final boolean outOfTime;
+	/**
+	 * Cells of the chests that could no longer reach a goal zone. Never
+	 * changed.
+	 */
+	private final int[] deadlocked;
+	/**
+	 * Time, in nanoseconds, the oldest key shown by this snapshot arrived, or
+	 * 0 if it shows no key.
+	 */
+	private final long input;
+
+	/**
+	 * Constructor for a snapshot of a simulation.
+	 *
+	 * @param simulation
+	 *            Simulation to copy.
+	 * @param input
+	 *            Time, in nanoseconds, the oldest key the changes came from
+	 *            arrived, or 0 if they came from no key.
+	 */
+	public Snapshot(Simulation simulation, long input) {
+		level = simulation.getLevel();
+		state = simulation.getState();
+		timeRemaining = simulation.getTimeRemaining();
+		score = simulation.getScore();
+		finished = simulation.isFinished();
+		outOfTime = simulation.isOutOfTime();
+		deadlocked = simulation.getDeadlocked();
+		this.input = input;
+	}
+
+	/**
+	 * Accessor for the level.
+	 *
+	 * @return Layout of the level.
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Accessor for the player cell.
+	 *
+	 * @return Cell the player was on, or -1 if there is no player.
+	 */
+	public int getPlayer() {
+		return state.getPlayer();
+	}
+
+	/**
+	 * Method to find the next cell with a chest on it.
+	 *
+	 * @param from
+	 *            Cell to start looking from.
+	 * @return Index of the next chest cell, or -1 if there are none left.
+	 */
+	public int nextChest(int from) {
+		return state.nextChest(from);
+	}
+
+	/**
+	 * Accessor for the Zobrist hash.
+	 *
+	 * @return Hash of where the player and chests were.
+	 */
+	public long getHash() {
+		return state.getHash();
+	}
+
+	/**
+	 * Accessor for the time remaining.
+	 *
+	 * @return Time, in milliseconds, that was left.
+	 */
+	public long getTimeRemaining() {
+		return timeRemaining;
+	}
+
+	/**
+	 * Accessor for the score.
+	 *
+	 * @return Number of chests that were on goal zones.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Method to check if the game was over.
+	 *
+	 * @return True if the level was solved or out of time, false otherwise.
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Method to check if the time had run out.
+	 *
+	 * @return True if the player was out of time, false otherwise.
+	 */
+	public boolean isOutOfTime() {
+		return outOfTime;
+	}
+
+	/**
+	 * Accessor for the deadlocked chests.
+	 *
+	 * @return Cells of the chests that could no longer reach a goal zone.
+	 *         Not to be changed.
+	 */
+	public int[] getDeadlocked() {
+		return deadlocked;
+	}
+
+	/**
+	 * Accessor for the input time.
+	 *
+	 * @return Time, in nanoseconds, the oldest key shown by this snapshot
+	 *         arrived, or 0 if it shows no key.
+	 */
+	public long getInput() {
+		return input;
+	}
+}
@@ -0,0 +1,355 @@
+package treasurehunt;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Class to read levels from a standard Sokoban collection (.xsb or .sok).
+ *
+ * Levels are read one at a time as they are asked for, so only the lines of
+ * the current level are ever held in memory, however many levels the file
+ * has. A board line is made only of the standard symbols and has at least one
+ * wall; any other line, such as a blank line, a title or a comment, ends the
+ * level. Walls become trees, and the rest of the symbols mean the same as in
+ * the project's own layouts. Skipped levels are only scanned for where they
+ * end, never laid out.
+ *
+ * A board is at most MAX_LINE cells wide and MAX_ROWS rows high, so a broken
+ * file can not use up the memory. A longer line is not part of any board,
+ * and a board with more rows is passed over, with an error when it is read.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class SokobanReader implements Iterator<Level>, Closeable {
+
+	/**
+	 * Longest line read as part of a level. Longer lines are skipped, so a
+	 * broken file can not use up the memory.
+	 */
+	public static final int MAX_LINE = 1024;
+	/**
+	 * Most rows read as part of a level. The rest of a taller board is
+	 * passed over.
+	 */
+	public static final int MAX_ROWS = 1024;
+
+	/**
+	 * Reader for the collection.
+	 */
+	private final BufferedReader in;
+	/**
+	 * Layout of the next level, in the project's alphabet.
+	 */
+	private final StringBuilder layout = new StringBuilder();
+	/**
+	 * True if the next level has been read ahead.
+	 */
+	private boolean ahead;
+	/**
+	 * Layout of the level read ahead, or null if it had too many rows.
+	 */
+	private String pending;
+	/**
+	 * Title of the next level, or null if it has none.
+	 */
+	private String nextTitle;
+	/**
+	 * Title of the level last returned by next, or null if it has none.
+	 */
+	private String title;
+	/**
+	 * Text of the last line that was not part of a level, kept as a title
+	 * for the level that follows it.
+	 */
+	private String comment;
+	/**
+	 * Number of levels returned so far.
+	 */
+	private int count;
+	/**
+	 * True once the end of the collection has been reached.
+	 */
+	private boolean done;
+
+	/**
+	 * Constructor for a reader of a collection file.
+	 *
+	 * @param file
+	 *            File holding the collection.
+	 * @throws IOException
+	 *             If the file can not be opened.
+	 */
+	public SokobanReader(File file) throws IOException {
+		this(new InputStreamReader(new FileInputStream(file),
+				StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * Constructor for a reader of a collection.
+	 *
+	 * @param reader
+	 *            Reader for the collection text.
+	 */
+	public SokobanReader(Reader reader) {
+		in = new BufferedReader(reader);
+	}
+
+	/**
+	 * Method to check if there are more levels.
+	 *
+	 * @return True if there is another level, false otherwise.
+	 */
+	public boolean hasNext() {
+		if (!ahead && !done)
+			ahead = readBoard(true);
+		return ahead;
+	}
+
+	/**
+	 * Method to read the next level.
+	 *
+	 * @return The next level.
+	 * @throws UncheckedIOException
+	 *             If the collection can not be read, or the level has more
+	 *             than MAX_ROWS rows. The reader moves on past the level.
+	 */
+	public Level next() {
+		return new Level(nextLayout());
+	}
+
+	/**
+	 * Method to read the next level without laying it out.
+	 *
+	 * @return Layout of the next level, in the project's alphabet.
+	 * @throws UncheckedIOException
+	 *             If the collection can not be read, or the level has more
+	 *             than MAX_ROWS rows. The reader moves on past the level.
+	 */
+	public String nextLayout() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+		ahead = false;
+		title = nextTitle;
+		int number = count++;
+		String taken = pending;
+		pending = null;
+		if (taken == null)
+			throw new UncheckedIOException(new IOException("Level " + number
+					+ " has more than " + MAX_ROWS + " rows"));
+		return taken;
+	}
+
+	/**
+	 * Method to skip over levels without laying them out.
+	 *
+	 * @param levels
+	 *            Number of levels to skip.
+	 * @return Number of levels skipped; fewer if the collection ran out.
+	 */
+	public int skip(int levels) {
+		int skipped = 0;
+		while (skipped < levels) {
+			if (ahead) {
+				ahead = false;
+				pending = null;
+			} else if (done || !readBoard(false)) {
+				break;
+			}
+			title = nextTitle;
+			count++;
+			skipped++;
+		}
+		return skipped;
+	}
+
+	/**
+	 * Accessor for the title of the level last returned.
+	 *
+	 * @return Title of the level, or null if it has none.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * Accessor for the number of levels read.
+	 *
+	 * @return Number of levels returned so far.
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * Method to close the collection.
+	 *
+	 * @throws IOException
+	 *             If the file can not be closed.
+	 */
+	public void close() throws IOException {
+		done = true;
+		in.close();
+	}
+
+	/**
+	 * Method to read lines up to the end of the next level.
+	 *
+	 * @param keep
+	 *            True to lay the level out, false to only find its title
+	 *            and where it ends.
+	 * @return True if a level was found, false at the end of the
+	 *         collection.
+	 */
+	private boolean readBoard(boolean keep) {
+		layout.setLength(0);
+		nextTitle = null;
+		pending = null;
+		int rows = 0;
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (isBoardLine(line)) {
+					if (rows == 0)
+						nextTitle = comment;
+					if (++rows > MAX_ROWS) {
+						// Too tall to read; pass over the rest of it.
+						layout.setLength(0);
+					} else if (keep) {
+						if (rows > 1)
+							layout.append('\n');
+						translate(line);
+					}
+				} else {
+					String text = line.trim();
+					if (rows > 0) {
+						// A title straight after the board belongs to it;
+						// any other comment is for the level that follows.
+						if (text.startsWith("Title:")) {
+							nextTitle = text.substring(6).trim();
+							comment = null;
+						} else
+							comment = commentOf(text);
+						finish(keep, rows);
+						return true;
+					}
+					String found = text.startsWith("Title:") ? text
+							.substring(6).trim() : commentOf(text);
+					if (found != null)
+						comment = found;
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		done = true;
+		finish(keep, rows);
+		return rows > 0;
+	}
+
+	/**
+	 * Method to keep the layout of the level just read.
+	 *
+	 * @param keep
+	 *            True if the level was laid out.
+	 * @param rows
+	 *            Number of rows the board had.
+	 */
+	private void finish(boolean keep, int rows) {
+		if (keep && rows > 0 && rows <= MAX_ROWS)
+			pending = layout.toString();
+		layout.setLength(0);
+	}
+
+	/**
+	 * Method to find the text of a comment line.
+	 *
+	 * @param text
+	 *            Line of the collection, trimmed.
+	 * @return Text of the comment, or null if the line is blank or holds a
+	 *         field such as "Author:".
+	 */
+	private static String commentOf(String text) {
+		if (text.startsWith(";"))
+			return text.substring(1).trim();
+		if (!text.isEmpty() && !text.contains(":"))
+			return text;
+		return null;
+	}
+
+	/**
+	 * Method to check if a line is part of a board.
+	 *
+	 * @param line
+	 *            Line of the collection.
+	 * @return True if the line is a row of a level, false otherwise.
+	 */
+	static boolean isBoardLine(String line) {
+		if (line.length() > MAX_LINE)
+			return false;
+		boolean wall = false;
+		for (int pos = 0; pos < line.length(); pos++) {
+			char item = line.charAt(pos);
+			if (item == '#')
+				wall = true;
+			else if ("$.@*+ -_".indexOf(item) < 0)
+				return false;
+		}
+		return wall;
+	}
+
+	/**
+	 * Method to add a board line to the layout in the project's alphabet.
+	 *
+	 * @param line
+	 *            Row of a level.
+	 */
+	private void translate(String line) {
+		int end = line.length();
+		while (end > 0 && Character.isWhitespace(line.charAt(end - 1)))
+			end--;
+		for (int pos = 0; pos < end; pos++) {
+			char item = line.charAt(pos);
+			if (item == '#')
+				layout.append('T');
+			else if (item == '-' || item == '_')
+				layout.append(' ');
+			else
+				layout.append(item);
+		}
+	}
+
+	/**
+	 * Method to read one level out of a collection.
+	 *
+	 * @param file
+	 *            File holding the collection.
+	 * @param number
+	 *            Number of the level, starting from zero.
+	 * @return The level.
+	 * @throws IOException
+	 *             If the file can not be read or has too few levels.
+	 */
+	public static Level read(File file, int number) throws IOException {
+		SokobanReader reader = new SokobanReader(file);
+		try {
+			if (reader.skip(number) < number || !reader.hasNext())
+				throw new IOException(file + " has only " + reader.getCount()
+						+ " levels");
+			return reader.next();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			reader.close();
+		}
+	}
+}
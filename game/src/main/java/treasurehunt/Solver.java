@@ -0,0 +1,833 @@
+package treasurehunt;
+
+import java.util.Arrays;
+
+/**
+ * Class to solve levels.
+ *
+ * Searches over pushes rather than single steps: each node is a position of
+ * the chests plus the area the player can walk to, and each edge is one push.
+ * The estimate of pushes left is the cheapest way of matching every goal zone
+ * with its own chest, using push distances that ignore the other chests, so
+ * it never overestimates and A* finds the fewest pushes. States already seen
+ * are kept in a fixed size transposition table keyed by their Zobrist hash.
+ *
+ * A* keeps every state it generates, packed into an OpenList, so its memory
+ * grows with the search; it gives up once the list holds as many nodes as it
+ * is allowed. Iterative deepening only keeps the current branch and the
+ * table, so it runs in fixed memory at the cost of expanding more states.
+ *
+ * Solutions are returned as a string of moves; u, r, d, l for steps and U, R,
+ * D, L for pushes.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class Solver implements Commons {
+
+	/**
+	 * Search with A*, keeping states seen over the whole search. Finds the
+	 * fewest pushes.
+	 */
+	public static final int A_STAR = 0;
+	/**
+	 * Search with iterative deepening A*, only keeping states seen in the
+	 * current iteration. Uses less memory but expands more states.
+	 */
+	public static final int IDA_STAR = 1;
+
+	/**
+	 * Estimate for a state that can never be solved.
+	 */
+	private static final int INFINITE = Integer.MAX_VALUE / 2;
+	/**
+	 * Cost of matching a goal with a chest that can never reach it.
+	 */
+	private static final int UNREACHABLE = 1 << 20;
+	/**
+	 * Characters for a step in each direction.
+	 */
+	private static final char[] MOVES = { ' ', 'u', 'r', 'd', 'l' };
+	/**
+	 * Characters for a push in each direction.
+	 */
+	private static final char[] PUSHES = { ' ', 'U', 'R', 'D', 'L' };
+
+	/**
+	 * Layout of the level being solved.
+	 */
+	private final Level level;
+	/**
+	 * Cells of the goal zones.
+	 */
+	private final int[] goals;
+	/**
+	 * Pushes needed to get a chest from each cell to each goal, ignoring the
+	 * other chests; indexed by goal then cell.
+	 */
+	private final int[][] distances;
+	/**
+	 * Boolean to check if chests on dead cells can be skipped. Only true when
+	 * every chest is needed for a goal.
+	 */
+	private final boolean pruneDead;
+
+	/**
+	 * Search algorithm to use.
+	 */
+	private int algorithm = A_STAR;
+	/**
+	 * Most states to expand before giving up.
+	 */
+	private long maxStates = 5000000;
+	/**
+	 * Most nodes an A* search may keep before giving up, or 0 for as many as
+	 * fit in half the memory left.
+	 */
+	private long maxNodes = 0;
+	/**
+	 * Most time, in milliseconds, to search before giving up. 0 for no limit.
+	 */
+	private long timeLimit = 0;
+	/**
+	 * Size of the transposition table as a power of two.
+	 */
+	private int tableBits = 21;
+	/**
+	 * Transposition table of the last search.
+	 */
+	private TranspositionTable table;
+
+	/**
+	 * Number of states expanded by the last search.
+	 */
+	private long explored;
+	/**
+	 * Number of pushes in the last solution, or -1 if there was none.
+	 */
+	private int pushes = -1;
+	/**
+	 * Boolean to check if the last search ran out of states or time.
+	 */
+	private boolean aborted;
+	/**
+	 * Time, in nanoseconds, the current search has to finish by.
+	 */
+	private long deadline;
+
+	/**
+	 * Queue for walking the grid.
+	 */
+	private final int[] queue;
+	/**
+	 * Marks for cells visited by the current walk.
+	 */
+	private final int[] marks;
+	/**
+	 * Number of the current walk.
+	 */
+	private int mark;
+	/**
+	 * Chest cells of the state being estimated.
+	 */
+	private final int[] chestCells;
+	/**
+	 * Cost matrix for matching goals with chests.
+	 */
+	private final int[][] cost;
+	/**
+	 * Scratch arrays for matching goals with chests.
+	 */
+	private final int[] rowPotential;
+	private final int[] columnPotential;
+	private final int[] assigned;
+	private final int[] way;
+	private final int[] minimum;
+	private final boolean[] used;
+
+	/**
+	 * Stack of pushes for iterative deepening; chest cell then direction.
+	 */
+	private int[] pushStack = new int[64];
+
+	/**
+	 * Constructor for a solver.
+	 *
+	 * @param level
+	 *            Layout of the level to solve.
+	 */
+	public Solver(Level level) {
+		this.level = level;
+		int size = level.getSize();
+		queue = new int[size];
+		marks = new int[size];
+
+		goals = new int[level.getGoalCount()];
+		int found = 0;
+		for (int index = 0; index < size; index++) {
+			if (level.isGoal(index))
+				goals[found++] = index;
+		}
+
+		distances = new int[goals.length][];
+		for (int goal = 0; goal < goals.length; goal++)
+			distances[goal] = pullDistances(goals[goal]);
+		pruneDead = level.getChestCount() == goals.length;
+
+		int chests = level.getChestCount();
+		chestCells = new int[chests];
+		cost = new int[goals.length + 1][chests + 1];
+		rowPotential = new int[goals.length + 1];
+		columnPotential = new int[chests + 1];
+		assigned = new int[chests + 1];
+		way = new int[chests + 1];
+		minimum = new int[chests + 1];
+		used = new boolean[chests + 1];
+	}
+
+	/**
+	 * Mutator for the search algorithm.
+	 *
+	 * @param algorithm
+	 *            A_STAR or IDA_STAR.
+	 */
+	public void setAlgorithm(int algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	/**
+	 * Mutator for the most states to expand before giving up.
+	 *
+	 * @param maxStates
+	 *            Most states to expand.
+	 */
+	public void setMaxStates(long maxStates) {
+		this.maxStates = maxStates;
+	}
+
+	/**
+	 * Mutator for the most nodes an A* search may keep before giving up.
+	 * Every state generated is kept until the search ends, so this is what
+	 * bounds its memory; see nodeBytes.
+	 *
+	 * @param maxNodes
+	 *            Most nodes to keep, or 0 for as many as fit in half the
+	 *            memory left when the search starts.
+	 */
+	public void setMaxNodes(long maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Method to find how much memory an A* search takes for each node it
+	 * keeps.
+	 *
+	 * @param level
+	 *            Level being solved.
+	 * @return Bytes per node.
+	 */
+	public static long nodeBytes(Level level) {
+		return OpenList.bytesPerNode((level.getSize() + 63) >>> 6);
+	}
+
+	/**
+	 * Mutator for the most time to search before giving up.
+	 *
+	 * @param millis
+	 *            Time limit in milliseconds, or 0 for no limit.
+	 */
+	public void setTimeLimit(long millis) {
+		timeLimit = millis;
+	}
+
+	/**
+	 * Mutator for the size of the transposition table.
+	 *
+	 * @param bits
+	 *            Size of the table as a power of two.
+	 */
+	public void setTableBits(int bits) {
+		tableBits = bits;
+	}
+
+	/**
+	 * Accessor for the transposition table of the last search.
+	 *
+	 * @return Table used by the last search, or null if there was none.
+	 */
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	/**
+	 * Accessor for the number of states expanded by the last search.
+	 *
+	 * @return Number of states expanded.
+	 */
+	public long getExplored() {
+		return explored;
+	}
+
+	/**
+	 * Accessor for the number of pushes in the last solution.
+	 *
+	 * @return Number of pushes, or -1 if no solution was found.
+	 */
+	public int getPushes() {
+		return pushes;
+	}
+
+	/**
+	 * Method to check if the last search gave up before finishing.
+	 *
+	 * @return True if the search ran out of states, nodes or time, false
+	 *         otherwise.
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Method to check if a goal can ever be filled; some chest can be pushed
+	 * onto it from where it starts, ignoring the other chests.
+	 *
+	 * @param goal
+	 *            Index of the goal cell.
+	 * @return True if a chest can reach the goal, false if none can or the
+	 *         cell is not a goal.
+	 */
+	public boolean canFill(int goal) {
+		int[] chests = level.getChests();
+		for (int number = 0; number < goals.length; number++) {
+			if (goals[number] != goal)
+				continue;
+			for (int chest = 0; chest < chests.length; chest++) {
+				if (distances[number][chests[chest]] < UNREACHABLE)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Method to solve the level.
+	 *
+	 * @return Moves that solve the level, or null if no solution was found.
+	 */
+	public String solve() {
+		explored = 0;
+		pushes = -1;
+		aborted = false;
+		deadline = timeLimit > 0 ? System.nanoTime() + timeLimit * 1000000L
+				: Long.MAX_VALUE;
+
+		if (level.getPlayer() < 0 || goals.length > level.getChestCount())
+			return null;
+
+		State start = level.createState();
+		normalize(start);
+		int[] solution = algorithm == IDA_STAR ? searchDeepening(start)
+				: searchBest(start);
+		if (solution == null)
+			return null;
+		pushes = solution.length / 2;
+		return toMoves(solution);
+	}
+
+	/**
+	 * Method to solve a level string.
+	 *
+	 * @param layout
+	 *            String containing the level layout.
+	 * @return Moves that solve the level, or null if no solution was found.
+	 */
+	public static String solve(String layout) {
+		return new Solver(new Level(layout)).solve();
+	}
+
+	/**
+	 * Method to search with A*.
+	 *
+	 * @param start
+	 *            Normalized starting state.
+	 * @return Pushes of the solution, or null if none was found.
+	 */
+	private int[] searchBest(State start) {
+
+		int estimate = estimate(start);
+		if (estimate >= INFINITE)
+			return null;
+
+		table = new TranspositionTable(tableBits,
+				TranspositionTable.ALWAYS_REPLACE);
+		OpenList open = new OpenList(start.getWords(),
+				nodeLimit(start.getWords()));
+		open.add(start, 0, estimate, -1, 0, 0);
+		table.store(start.getHash(), 0, 0);
+		int[] found = new int[level.getChestCount() * 8];
+		State state = start.copy();
+		State child = start.copy();
+
+		while (!open.isEmpty()) {
+			int node = open.poll();
+			int nodePushes = open.getPushes(node);
+			int stored = table.probe(open.getHash(node));
+			if (stored != TranspositionTable.MISSING && stored < nodePushes)
+				continue;
+			open.load(node, state);
+			if (state.covers(level.getGoals()))
+				return pathTo(open, node);
+			if (outOfBudget())
+				return null;
+
+			int count = findPushes(state, found);
+			for (int push = 0; push < count; push += 2) {
+				child.copyFrom(state);
+				push(child, found[push], found[push + 1]);
+				int pushes = nodePushes + 1;
+				int seen = table.probe(child.getHash());
+				if (seen != TranspositionTable.MISSING && seen <= pushes)
+					continue;
+				int childEstimate = estimate(child);
+				if (childEstimate >= INFINITE)
+					continue;
+				// Give up rather than keep more nodes than there is room for.
+				if (open.isFull()) {
+					aborted = true;
+					return null;
+				}
+				table.store(child.getHash(), pushes, 0);
+				open.add(child, pushes, childEstimate, node, found[push],
+						found[push + 1]);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Method to work out the most nodes an A* search may keep.
+	 *
+	 * @param words
+	 *            Number of longs in the chest bits of each state.
+	 * @return The limit set, or as many nodes as fit in half the memory left.
+	 */
+	private long nodeLimit(int words) {
+		if (maxNodes > 0)
+			return maxNodes;
+		Runtime runtime = Runtime.getRuntime();
+		long free = runtime.maxMemory()
+				- (runtime.totalMemory() - runtime.freeMemory());
+		return Math.max(1, free / 2 / OpenList.bytesPerNode(words));
+	}
+
+	/**
+	 * Method to follow a node back to the start.
+	 *
+	 * @param open
+	 *            Nodes of the search.
+	 * @param node
+	 *            Node that solves the level.
+	 * @return Pushes of the solution; chest cell then direction.
+	 */
+	private static int[] pathTo(OpenList open, int node) {
+		int[] path = new int[open.getPushes(node) * 2];
+		for (int step = node; open.getParent(step) >= 0; step = open
+				.getParent(step)) {
+			int pushes = open.getPushes(step);
+			path[pushes * 2 - 2] = open.getChest(step);
+			path[pushes * 2 - 1] = open.getDirection(step);
+		}
+		return path;
+	}
+
+	/**
+	 * Method to search with iterative deepening A*.
+	 *
+	 * @param start
+	 *            Normalized starting state.
+	 * @return Pushes of the solution, or null if none was found.
+	 */
+	private int[] searchDeepening(State start) {
+
+		int threshold = estimate(start);
+		table = new TranspositionTable(tableBits,
+				TranspositionTable.DEPTH_PREFERRED);
+		while (threshold < INFINITE) {
+			table.clear();
+			int next = deepen(start, 0, threshold);
+			if (next < 0)
+				return Arrays.copyOf(pushStack, -next - 1);
+			if (aborted)
+				return null;
+			threshold = next;
+		}
+		return null;
+	}
+
+	/**
+	 * Method to search one branch of iterative deepening A*.
+	 *
+	 * @param state
+	 *            State to search from.
+	 * @param pushes
+	 *            Pushes made to get to the state.
+	 * @param threshold
+	 *            Most total cost to search to in this iteration.
+	 * @return Smallest total cost over the threshold, or minus one minus the
+	 *         length of the push stack if the level was solved.
+	 */
+	private int deepen(State state, int pushes, int threshold) {
+
+		int total = pushes + estimate(state);
+		if (total > threshold)
+			return total;
+		if (state.covers(level.getGoals()))
+			return -(pushes * 2) - 1;
+		// Entries with more search left below them are kept over others.
+		int previous = table.probe(state.getHash());
+		if (previous != TranspositionTable.MISSING && previous <= pushes)
+			return INFINITE;
+		table.store(state.getHash(), pushes, threshold - pushes);
+		if (outOfBudget())
+			return INFINITE;
+
+		int[] found = new int[level.getChestCount() * 8];
+		int count = findPushes(state, found);
+		int next = INFINITE;
+		for (int push = 0; push < count; push += 2) {
+			State child = applyPush(state, found[push], found[push + 1]);
+			if (pushStack.length < pushes * 2 + 2)
+				pushStack = Arrays.copyOf(pushStack, pushStack.length * 2);
+			pushStack[pushes * 2] = found[push];
+			pushStack[pushes * 2 + 1] = found[push + 1];
+			int result = deepen(child, pushes + 1, threshold);
+			if (result < 0)
+				return result;
+			next = Math.min(next, result);
+			if (aborted)
+				break;
+		}
+		return next;
+	}
+
+	/**
+	 * Method to count an expanded state and check the limits.
+	 *
+	 * @return True if the search has to give up, false otherwise.
+	 */
+	private boolean outOfBudget() {
+		explored++;
+		if (explored > maxStates
+				|| ((explored & 1023) == 0 && System.nanoTime() > deadline))
+			aborted = true;
+		return aborted;
+	}
+
+	/**
+	 * Method to find every push the player can make from a state.
+	 *
+	 * @param state
+	 *            State to push from.
+	 * @param found
+	 *            Array to fill with the chest cell then direction of each
+	 *            push.
+	 * @return Number of entries filled in found.
+	 */
+	private int findPushes(State state, int[] found) {
+		walk(state, state.getPlayer());
+		int count = 0;
+		for (int chest = state.nextChest(0); chest >= 0; chest = state
+				.nextChest(chest + 1)) {
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int from = level.neighbour(chest, Level.opposite(direction));
+				if (from < 0 || marks[from] != mark)
+					continue;
+				int to = level.neighbour(chest, direction);
+				if (to < 0 || level.isBlocked(to) || state.hasChest(to)
+						|| (pruneDead && level.isDead(to)))
+					continue;
+				found[count++] = chest;
+				found[count++] = direction;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Method to make a push and normalize the new state.
+	 *
+	 * @param state
+	 *            State to push from.
+	 * @param chest
+	 *            Cell of the chest to push.
+	 * @param direction
+	 *            Direction to push it.
+	 * @return New state after the push.
+	 */
+	private State applyPush(State state, int chest, int direction) {
+		State child = state.copy();
+		push(child, chest, direction);
+		return child;
+	}
+
+	/**
+	 * Method to make a push in place and normalize the state.
+	 *
+	 * @param state
+	 *            State to push in.
+	 * @param chest
+	 *            Cell of the chest to push.
+	 * @param direction
+	 *            Direction to push it.
+	 */
+	private void push(State state, int chest, int direction) {
+		state.moveChest(chest, level.neighbour(chest, direction));
+		state.setPlayer(chest);
+		normalize(state);
+	}
+
+	/**
+	 * Method to move the player to the lowest cell they can walk to, so
+	 * states that only differ by where the player stands are equal.
+	 *
+	 * @param state
+	 *            State to normalize.
+	 */
+	private void normalize(State state) {
+		state.setPlayer(walk(state, state.getPlayer()));
+	}
+
+	/**
+	 * Method to mark every cell the player can walk to without pushing.
+	 *
+	 * @param state
+	 *            State to walk in.
+	 * @param from
+	 *            Cell to start walking from.
+	 * @return Lowest cell reached.
+	 */
+	private int walk(State state, int from) {
+		mark++;
+		int head = 0;
+		int tail = 0;
+		int lowest = from;
+		queue[tail++] = from;
+		marks[from] = mark;
+		while (head < tail) {
+			int cell = queue[head++];
+			if (cell < lowest)
+				lowest = cell;
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int next = level.neighbour(cell, direction);
+				if (next < 0 || marks[next] == mark || level.isBlocked(next)
+						|| state.hasChest(next))
+					continue;
+				marks[next] = mark;
+				queue[tail++] = next;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * Method to find how many pushes it takes to get a chest from each cell
+	 * onto a goal, ignoring the other chests.
+	 *
+	 * @param goal
+	 *            Cell of the goal.
+	 * @return Pushes needed from each cell, or UNREACHABLE.
+	 */
+	private int[] pullDistances(int goal) {
+		int[] distance = new int[level.getSize()];
+		Arrays.fill(distance, UNREACHABLE);
+		int head = 0;
+		int tail = 0;
+		distance[goal] = 0;
+		queue[tail++] = goal;
+		// Pull the chest back from the goal; the player has to stand behind.
+		while (head < tail) {
+			int cell = queue[head++];
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int before = level.neighbour(cell, direction);
+				if (before < 0 || level.isBlocked(before)
+						|| distance[before] != UNREACHABLE)
+					continue;
+				int behind = level.neighbour(before, direction);
+				if (behind < 0 || level.isBlocked(behind))
+					continue;
+				distance[before] = distance[cell] + 1;
+				queue[tail++] = before;
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Method to estimate the pushes left; the cheapest matching of goals with
+	 * chests.
+	 *
+	 * @param state
+	 *            State to estimate.
+	 * @return Lower bound on the pushes left, or INFINITE if the state can
+	 *         never be solved.
+	 */
+	int estimate(State state) {
+		int chests = 0;
+		for (int chest = state.nextChest(0); chest >= 0; chest = state
+				.nextChest(chest + 1))
+			chestCells[chests++] = chest;
+		int rows = goals.length;
+		if (rows == 0)
+			return 0;
+		for (int goal = 0; goal < rows; goal++) {
+			for (int chest = 0; chest < chests; chest++)
+				cost[goal + 1][chest + 1] = distances[goal][chestCells[chest]];
+		}
+		int total = match(rows, chests);
+		return total >= UNREACHABLE ? INFINITE : total;
+	}
+
+	/**
+	 * Method to find the cheapest way to give every goal its own chest, using
+	 * the Hungarian algorithm on the cost matrix.
+	 *
+	 * @param rows
+	 *            Number of goals.
+	 * @param columns
+	 *            Number of chests; at least the number of goals.
+	 * @return Total cost of the cheapest matching.
+	 */
+	private int match(int rows, int columns) {
+		Arrays.fill(rowPotential, 0);
+		Arrays.fill(columnPotential, 0);
+		Arrays.fill(assigned, 0);
+		for (int row = 1; row <= rows; row++) {
+			assigned[0] = row;
+			int column = 0;
+			Arrays.fill(minimum, Integer.MAX_VALUE);
+			Arrays.fill(used, false);
+			do {
+				used[column] = true;
+				int current = assigned[column];
+				int delta = Integer.MAX_VALUE;
+				int nextColumn = 0;
+				for (int other = 1; other <= columns; other++) {
+					if (used[other])
+						continue;
+					int reduced = cost[current][other] - rowPotential[current]
+							- columnPotential[other];
+					if (reduced < minimum[other]) {
+						minimum[other] = reduced;
+						way[other] = column;
+					}
+					if (minimum[other] < delta) {
+						delta = minimum[other];
+						nextColumn = other;
+					}
+				}
+				for (int other = 0; other <= columns; other++) {
+					if (used[other]) {
+						rowPotential[assigned[other]] += delta;
+						columnPotential[other] -= delta;
+					} else {
+						minimum[other] -= delta;
+					}
+				}
+				column = nextColumn;
+			} while (assigned[column] != 0);
+			do {
+				int previous = way[column];
+				assigned[column] = assigned[previous];
+				column = previous;
+			} while (column != 0);
+		}
+		return -columnPotential[0];
+	}
+
+	/**
+	 * Method to turn a list of pushes into moves, walking the player to each
+	 * push.
+	 *
+	 * @param solution
+	 *            Pushes; chest cell then direction.
+	 * @return Moves that make the pushes.
+	 */
+	private String toMoves(int[] solution) {
+		StringBuilder moves = new StringBuilder();
+		State state = level.createState();
+		int[] cameFrom = new int[level.getSize()];
+		for (int push = 0; push < solution.length; push += 2) {
+			int chest = solution[push];
+			int direction = solution[push + 1];
+			int target = level.neighbour(chest, Level.opposite(direction));
+			appendPath(state, target, cameFrom, moves);
+			moves.append(PUSHES[direction]);
+			state.moveChest(chest, level.neighbour(chest, direction));
+			state.setPlayer(chest);
+		}
+		return moves.toString();
+	}
+
+	/**
+	 * Method to add the shortest walk from the player to a cell.
+	 *
+	 * @param state
+	 *            State to walk in; the player is moved to the target.
+	 * @param target
+	 *            Cell to walk to.
+	 * @param cameFrom
+	 *            Scratch array for the direction each cell was reached by.
+	 * @param moves
+	 *            Moves to add the walk to.
+	 */
+	private void appendPath(State state, int target, int[] cameFrom,
+			StringBuilder moves) {
+		mark++;
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = state.getPlayer();
+		marks[state.getPlayer()] = mark;
+		while (head < tail && marks[target] != mark) {
+			int cell = queue[head++];
+			for (int direction = TOP_COLLISION; direction <= LEFT_COLLISION; direction++) {
+				int next = level.neighbour(cell, direction);
+				if (next < 0 || marks[next] == mark || level.isBlocked(next)
+						|| state.hasChest(next))
+					continue;
+				marks[next] = mark;
+				cameFrom[next] = direction;
+				queue[tail++] = next;
+			}
+		}
+		int length = moves.length();
+		for (int cell = target; cell != state.getPlayer(); cell = level
+				.neighbour(cell, Level.opposite(cameFrom[cell])))
+			moves.insert(length, MOVES[cameFrom[cell]]);
+		state.setPlayer(target);
+	}
+
+	/**
+	 * Main method to solve the first level.
+	 *
+	 * @param args
+	 *            Any extra arguments passed to the program. "ida" to use
+	 *            iterative deepening.
+	 */
+	public static void main(String[] args) {
+		Solver solver = new Solver(new Level(levelOne));
+		if (args.length > 0 && args[0].equalsIgnoreCase("ida"))
+			solver.setAlgorithm(IDA_STAR);
+		long start = System.nanoTime();
+		String moves = solver.solve();
+		long millis = (System.nanoTime() - start) / 1000000;
+		if (moves == null)
+			System.out.println((solver.isAborted() ? "Gave up" : "No solution found")
+					+ " after " + solver.getExplored() + " states.");
+		else
+			System.out.println(solver.getPushes() + " pushes, "
+					+ moves.length() + " moves, " + solver.getExplored()
+					+ " states, " + millis + " ms, table hits "
+					+ solver.getTable().getHits() + " misses "
+					+ solver.getTable().getMisses() + "\n" + moves);
+	}
+}
@@ -0,0 +1,74 @@
+package treasurehunt;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Class to decode each sound effect once and share it.
+ *
+ * Sounds are decoded the first time they are asked for and converted to the
+ * format of the audio mixer, unless the asset bundle already holds them in
+ * that format. Different sounds can be decoded on different threads at the
+ * same time.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class SoundCache {
+
+	/**
+	 * Sounds loaded so far, by file name.
+	 */
+	private static final ConcurrentHashMap<String, short[]> sounds = new ConcurrentHashMap<String, short[]>();
+
+	/**
+	 * Constructor is private, the cache is only used statically.
+	 */
+	private SoundCache() {
+	}
+
+	/**
+	 * Method to get a sound, decoding it if it has not been decoded yet. A
+	 * sound that can not be read is silent.
+	 *
+	 * @param name
+	 *            File name of the sound, next to the game classes.
+	 * @return Shared samples of the sound, in the mixer's format.
+	 */
+	public static short[] get(String name) {
+		short[] samples = sounds.get(name);
+		if (samples == null)
+			samples = sounds.computeIfAbsent(name, SoundCache::load);
+		return samples;
+	}
+
+	/**
+	 * Method to decode a sound.
+	 *
+	 * @param name
+	 *            File name of the sound.
+	 * @return Samples of the sound, or none if it can not be read.
+	 */
+	private static short[] load(String name) {
+		AssetBundle bundle = AssetBundle.get();
+		short[] bundled = bundle == null ? null : bundle.getSound(name);
+		if (bundled != null)
+			return bundled;
+		URL url = SoundCache.class.getResource(name);
+		if (url == null) {
+			System.err.println("Missing sound: " + name);
+			return new short[0];
+		}
+		try {
+			return AudioMixer.load(url);
+		} catch (UnsupportedAudioFileException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return new short[0];
+	}
+}
@@ -0,0 +1,194 @@
+package treasurehunt;
+
+import javax.sound.sampled.*;
+
+// http://www3.ntu.edu.sg/home/ehchua/programming/java/J8c_PlayingSound.html
+
+/**
+ * This enum encapsulates all the sound effects of a game, so as to separate
+ * the sound playing codes from the game codes.
+ * 1. Define all your sound effect names and the associated wave file.
+ * 2. To play a specific sound, simply invoke SoundEffect.SOUND_NAME.play().
+ * 3. You might optionally invoke the static method SoundEffect.init() to
+ * pre-load all the sound files, so that the play is not paused while loading
+ * the file for the first time.
+ * 4. You can use the static method SoundEffect.setVolume() to set the volume
+ * or mute the sound.
+ *
+ * All the sounds are mixed on one line by an AudioMixer, so the same sound
+ * can play over itself, and playing a sound never waits on the audio line.
+ * Music is streamed from its file by a MusicStream instead of being loaded.
+ */
+
+public enum SoundEffect {
+  PUSH("beep-07.wav" ),
+  OHNO( "alien-noise-01.wav" ),
+  CHEER( "cheer-01.wav" ),
+  SONG( "Jaunty Gumption105.wav", true );
+
+  // nested class for specifying volume, with the gain for each level
+  public static enum Volume
+  {
+    MUTE( 0f ), LOW( 0.25f ), MEDIUM( 0.5f ), HIGH( 1f );
+
+    private final float gain;
+
+    Volume( float gain )
+    {
+      this.gain = gain;
+    }
+
+    public float getGain()
+    {
+      return gain;
+    }
+  }
+
+  public static volatile Volume vol = Volume.LOW;
+
+  // each sound effect has its own samples, in the mixer's format
+  private short[] samples = new short[0];
+
+  // music is streamed from its file as it plays instead of loaded
+  private final String filename;
+  private final boolean streamed;
+
+  SoundEffect( String filename )
+  {
+    this( filename, false );
+  }
+
+  // constructor to build each elem of the enum with its own sound file;
+  // the file is only decoded by init
+  SoundEffect( String filename, boolean streamed )
+  {
+    this.filename = filename;
+    this.streamed = streamed;
+  }
+
+  String getFilename()
+  {
+    return filename;
+  }
+
+  boolean isStreamed()
+  {
+    return streamed;
+  }
+
+  // one mixer for all the sounds, or null if there is no audio line
+  private static volatile AudioMixer MIXER;
+  private static volatile boolean loaded;
+  // true while something else, such as the asset loader, will call init
+  private static volatile boolean deferred;
+
+  private static AudioMixer openMixer()
+  {
+    short[][] sounds = new short[ values().length ][];
+    for( SoundEffect effect : values() )
+      sounds[ effect.ordinal() ] = effect.samples;
+    try
+    {
+      AudioMixer mixer = new AudioMixer( sounds );
+      mixer.setGain( vol.getGain() );
+      return mixer;
+    }
+    catch( LineUnavailableException e )
+    {
+         e.printStackTrace();
+    }
+    catch( IllegalArgumentException e )
+    {
+         // no line in the mixer's format
+         e.printStackTrace();
+    }
+    return null;
+  }
+
+  // the mixer, loading the sounds first if init has not been called; while
+  // init is deferred, sounds are skipped rather than waited for
+  private static AudioMixer mixer()
+  {
+    if( !loaded && !deferred )
+      init();
+    return MIXER;
+  }
+
+  // leave loading the sounds to a later call to init
+  static void deferInit()
+  {
+    deferred = true;
+  }
+
+  // set the volume of every sound
+  public static void setVolume( Volume volume )
+  {
+    vol = volume;
+    AudioMixer mixer = MIXER;
+    if( mixer != null )
+      mixer.setGain( volume.getGain() );
+  }
+
+  // play sound effect from beginning, over any copies already playing
+  public void play()
+  {
+    AudioMixer mixer = mixer();
+    if( vol != Volume.MUTE && mixer != null )
+    {
+      mixer.setGain( vol.getGain() );
+      if( streamed )
+        mixer.getMusic().play( filename, false );
+      else
+        mixer.play( ordinal() );
+    }
+  }
+
+  public void stoploop()
+  {
+    AudioMixer mixer = mixer();
+    if( mixer == null )
+      return;
+    if( streamed )
+      mixer.getMusic().stop();
+    else
+      mixer.stop( ordinal() );
+  }
+
+  public void playloop()
+  {
+    AudioMixer mixer = mixer();
+    if( vol != Volume.MUTE && mixer != null )
+    {
+      mixer.setGain( vol.getGain() );
+      if( streamed )
+        mixer.getMusic().play( filename, true );
+      else
+        mixer.loop( ordinal() );    // restarts from the beginning
+    }
+  }
+
+  // loop another music file in place of whatever music is playing
+  public static void playMusic( String filename )
+  {
+    AudioMixer mixer = mixer();
+    if( vol != Volume.MUTE && mixer != null )
+    {
+      mixer.setGain( vol.getGain() );
+      mixer.getMusic().play( filename, true );
+    }
+  }
+
+  // optional static method to pre-load all the sound files and open the
+  // mixer; sounds already decoded by the asset loader are not decoded again
+  static synchronized void init()
+  {
+    if( loaded )
+      return;
+    for( SoundEffect effect : values() )
+      if( !effect.streamed )
+        effect.samples = SoundCache.get( effect.filename );
+    MIXER = openMixer();
+    loaded = true;
+    deferred = false;
+  }
+}
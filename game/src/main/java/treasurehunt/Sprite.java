@@ -1,4 +1,4 @@
-
+package treasurehunt;
 
 import java.awt.Image;
 
@@ -0,0 +1,251 @@
+package treasurehunt;
+
+import java.util.Arrays;
+
+/**
+ * Class for the moving parts of a level.
+ *
+ * The chests are kept as a bitset with one bit per cell of the level, and the
+ * player as the index of the cell they are on. Copying and comparing a state
+ * only touches a handful of longs, and the Zobrist hash of the state is kept
+ * up to date with a couple of XORs on every change.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class State {
+
+	/**
+	 * Cell the player is on, or -1 if there is no player.
+	 */
+	private int player;
+	/**
+	 * Bitset of the cells with a chest on them.
+	 */
+	private final long[] chests;
+	/**
+	 * Zobrist keys of the level.
+	 */
+	private final Zobrist keys;
+	/**
+	 * Zobrist hash of the player and chests.
+	 */
+	private long hash;
+
+	/**
+	 * Constructor for an empty state.
+	 *
+	 * @param keys
+	 *            Zobrist keys of the level.
+	 */
+	public State(Zobrist keys) {
+		this.keys = keys;
+		player = -1;
+		chests = new long[(keys.getSize() + 63) >>> 6];
+	}
+
+	/**
+	 * Constructor for a copy of another state.
+	 *
+	 * @param other
+	 *            State to copy.
+	 */
+	public State(State other) {
+		player = other.player;
+		chests = other.chests.clone();
+		keys = other.keys;
+		hash = other.hash;
+	}
+
+	/**
+	 * Method to make a copy of this state.
+	 *
+	 * @return New state equal to this one.
+	 */
+	public State copy() {
+		return new State(this);
+	}
+
+	/**
+	 * Method to overwrite this state with another one of the same level.
+	 *
+	 * @param other
+	 *            State to copy from.
+	 */
+	public void copyFrom(State other) {
+		player = other.player;
+		System.arraycopy(other.chests, 0, chests, 0, chests.length);
+		hash = other.hash;
+	}
+
+	/**
+	 * Accessor for the Zobrist hash.
+	 *
+	 * @return Hash of the player and chests.
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Accessor for the player cell.
+	 *
+	 * @return Cell the player is on, or -1 if there is no player.
+	 */
+	public int getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Mutator for the player cell.
+	 *
+	 * @param index
+	 *            Cell the player is now on.
+	 */
+	public void setPlayer(int index) {
+		hash ^= keys.player(player) ^ keys.player(index);
+		player = index;
+	}
+
+	/**
+	 * Method to check if a cell has a chest on it.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return True if there is a chest on the cell, false otherwise.
+	 */
+	public boolean hasChest(int index) {
+		return (chests[index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Method to put a chest on a cell.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 */
+	public void addChest(int index) {
+		if (!hasChest(index))
+			hash ^= keys.chest(index);
+		chests[index >>> 6] |= 1L << index;
+	}
+
+	/**
+	 * Method to move a chest from one cell to another.
+	 *
+	 * @param from
+	 *            Cell the chest is on.
+	 * @param to
+	 *            Cell the chest is moving to.
+	 */
+	public void moveChest(int from, int to) {
+		chests[from >>> 6] &= ~(1L << from);
+		chests[to >>> 6] |= 1L << to;
+		hash ^= keys.chest(from) ^ keys.chest(to);
+	}
+
+	/**
+	 * Method to count the chests on a set of cells.
+	 *
+	 * @param mask
+	 *            Bitset of the cells to check.
+	 * @return Number of chests on those cells.
+	 */
+	public int countChests(long[] mask) {
+		int count = 0;
+		for (int word = 0; word < chests.length; word++)
+			count += Long.bitCount(chests[word] & mask[word]);
+		return count;
+	}
+
+	/**
+	 * Method to check if every cell in a set has a chest on it.
+	 *
+	 * @param mask
+	 *            Bitset of the cells to check.
+	 * @return True if all the cells have a chest, false otherwise.
+	 */
+	public boolean covers(long[] mask) {
+		for (int word = 0; word < chests.length; word++) {
+			if ((mask[word] & ~chests[word]) != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Method to find the next cell with a chest on it.
+	 *
+	 * @param from
+	 *            Cell to start looking from.
+	 * @return Index of the next chest cell, or -1 if there are none left.
+	 */
+	public int nextChest(int from) {
+		int word = from >>> 6;
+		if (word >= chests.length)
+			return -1;
+		long bits = chests[word] & (-1L << from);
+		while (bits == 0) {
+			if (++word == chests.length)
+				return -1;
+			bits = chests[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Accessor for the length of the chest bitset.
+	 *
+	 * @return Number of longs holding the chest bits.
+	 */
+	public int getWords() {
+		return chests.length;
+	}
+
+	/**
+	 * Method to copy the chest bits out, so the state can be kept without
+	 * an object of its own.
+	 *
+	 * @param into
+	 *            Array to copy the bits into.
+	 * @param offset
+	 *            Index in the array of the first long.
+	 */
+	public void save(long[] into, int offset) {
+		System.arraycopy(chests, 0, into, offset, chests.length);
+	}
+
+	/**
+	 * Method to overwrite this state with one saved by save.
+	 *
+	 * @param from
+	 *            Array holding the chest bits.
+	 * @param offset
+	 *            Index in the array of the first long.
+	 * @param player
+	 *            Cell the player is on.
+	 * @param hash
+	 *            Zobrist hash of the saved state.
+	 */
+	public void load(long[] from, int offset, int player, long hash) {
+		System.arraycopy(from, offset, chests, 0, chests.length);
+		this.player = player;
+		this.hash = hash;
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (!(object instanceof State))
+			return false;
+		State other = (State) object;
+		return hash == other.hash && player == other.player
+				&& Arrays.equals(chests, other.chests);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
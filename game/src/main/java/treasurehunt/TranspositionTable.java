@@ -0,0 +1,178 @@
+package treasurehunt;
+
+import java.util.Arrays;
+
+/**
+ * Class for a fixed size table of states seen during a search.
+ *
+ * Entries are keyed by the Zobrist hash of a state and hold a value and a
+ * depth. The table never grows; when two states land on the same slot the
+ * replacement policy decides which one stays. Two different states with the
+ * same 64 bit hash are treated as the same state.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class TranspositionTable {
+
+	/**
+	 * Policy where a new entry always replaces the old one.
+	 */
+	public static final int ALWAYS_REPLACE = 0;
+	/**
+	 * Policy where a new entry only replaces an old one of the same state, or
+	 * one with no more depth than it.
+	 */
+	public static final int DEPTH_PREFERRED = 1;
+	/**
+	 * Value returned by probe when the state is not in the table.
+	 */
+	public static final int MISSING = Integer.MIN_VALUE;
+
+	/**
+	 * Hash of the state in each slot.
+	 */
+	private final long[] keys;
+	/**
+	 * Value stored in each slot.
+	 */
+	private final int[] values;
+	/**
+	 * Depth stored in each slot, or -1 if the slot is empty.
+	 */
+	private final int[] depths;
+	/**
+	 * Mask to turn a hash into a slot.
+	 */
+	private final int mask;
+	/**
+	 * Replacement policy of the table.
+	 */
+	private final int policy;
+
+	/**
+	 * Number of probes that found their state.
+	 */
+	private long hits;
+	/**
+	 * Number of probes that did not find their state.
+	 */
+	private long misses;
+	/**
+	 * Number of entries pushed out by a different state.
+	 */
+	private long overwrites;
+
+	/**
+	 * Constructor for a table.
+	 *
+	 * @param bits
+	 *            Size of the table as a power of two; 20 gives about a
+	 *            million entries in 16 megabytes.
+	 * @param policy
+	 *            ALWAYS_REPLACE or DEPTH_PREFERRED.
+	 */
+	public TranspositionTable(int bits, int policy) {
+		if (bits < 1 || bits > 30)
+			throw new IllegalArgumentException("bits must be 1 to 30: " + bits);
+		keys = new long[1 << bits];
+		values = new int[1 << bits];
+		depths = new int[1 << bits];
+		mask = (1 << bits) - 1;
+		this.policy = policy;
+		Arrays.fill(depths, -1);
+	}
+
+	/**
+	 * Method to look up a state.
+	 *
+	 * @param key
+	 *            Zobrist hash of the state.
+	 * @return Value stored for the state, or MISSING.
+	 */
+	public int probe(long key) {
+		int slot = slot(key);
+		if (depths[slot] >= 0 && keys[slot] == key) {
+			hits++;
+			return values[slot];
+		}
+		misses++;
+		return MISSING;
+	}
+
+	/**
+	 * Method to store a state.
+	 *
+	 * @param key
+	 *            Zobrist hash of the state.
+	 * @param value
+	 *            Value to store for the state.
+	 * @param depth
+	 *            Depth of the entry, at least 0. Only used by DEPTH_PREFERRED.
+	 */
+	public void store(long key, int value, int depth) {
+		int slot = slot(key);
+		if (depths[slot] >= 0 && keys[slot] != key) {
+			if (policy == DEPTH_PREFERRED && depth < depths[slot])
+				return;
+			overwrites++;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		depths[slot] = depth;
+	}
+
+	/**
+	 * Method to empty the table. The counters are kept.
+	 */
+	public void clear() {
+		Arrays.fill(depths, -1);
+	}
+
+	/**
+	 * Method to find the slot of a hash.
+	 *
+	 * @param key
+	 *            Zobrist hash of a state.
+	 * @return Slot in the table.
+	 */
+	private int slot(long key) {
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	/**
+	 * Accessor for the number of slots.
+	 *
+	 * @return Number of entries the table can hold.
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Accessor for the number of probes that found their state.
+	 *
+	 * @return Number of hits.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Accessor for the number of probes that did not find their state.
+	 *
+	 * @return Number of misses.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Accessor for the number of entries pushed out by a different state.
+	 *
+	 * @return Number of overwrites.
+	 */
+	public long getOverwrites() {
+		return overwrites;
+	}
+}
@@ -1,6 +1,4 @@
-
-
-import javax.swing.ImageIcon;
+package treasurehunt;
 
 /**
  * Basic class for Treasure Chests.
@@ -12,6 +10,11 @@ import javax.swing.ImageIcon;
  */
 public class Treasure extends Sprite{
 
+	/**
+	 * File name of the treasure chest image.
+	 */
+	public static final String IMAGE = "chest.png";
+
 	/**
 	 * Constructor for a treasure chest.
 	 * @param xPos X coordinate of the treasure chest.
@@ -21,8 +24,7 @@ public class Treasure extends Sprite{
     	
         super(xPos, yPos);
         
-        ImageIcon ii = new ImageIcon(this.getClass().getResource("chest.png"));
-        image = ii.getImage();
+        image = ImageCache.get(IMAGE);
     }
 
     /**
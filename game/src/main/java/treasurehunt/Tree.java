@@ -1,6 +1,4 @@
-
-
-import javax.swing.ImageIcon;
+package treasurehunt;
 
 /**
  * Basic class for Trees.
@@ -12,6 +10,11 @@ import javax.swing.ImageIcon;
  */
 public class Tree extends Sprite{
 	
+	/**
+	 * File name of the tree image.
+	 */
+	public static final String IMAGE = "tree.png";
+
 	/**
 	 * Constructor for trees.
 	 * @param xPos X coordinate of the tree.
@@ -20,7 +23,6 @@ public class Tree extends Sprite{
 	public Tree(int xPos, int yPos){
 		
 		super(xPos, yPos);
-		ImageIcon ii = new ImageIcon(this.getClass().getResource("tree.png"));
-		image = ii.getImage();
+		image = ImageCache.get(IMAGE);
 	}
 }
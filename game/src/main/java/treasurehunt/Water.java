@@ -1,6 +1,4 @@
-
-
-import javax.swing.ImageIcon;
+package treasurehunt;
 
 /**
  * Basic class for Water.
@@ -12,6 +10,11 @@ import javax.swing.ImageIcon;
  */
 public class Water extends Sprite{
 	
+	/**
+	 * File name of the water image.
+	 */
+	public static final String IMAGE = "water.png";
+
 	/**
 	 * Constructor for water.
 	 * @param xPos X coordinate of the water.
@@ -20,7 +23,6 @@ public class Water extends Sprite{
 	public Water(int xPos, int yPos){
 		
 		super(xPos, yPos);
-		ImageIcon ii = new ImageIcon(this.getClass().getResource("water.png"));
-		image = ii.getImage();
+		image = ImageCache.get(IMAGE);
 	}
 }
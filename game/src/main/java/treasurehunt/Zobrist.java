@@ -0,0 +1,79 @@
+package treasurehunt;
+
+import java.util.SplittableRandom;
+
+/**
+ * Class for the Zobrist keys of a level.
+ *
+ * Every cell has one random key for a chest standing on it and one for the
+ * player standing on it. The hash of a state is the XOR of the keys of
+ * everything in it, so moving the player or a chest only takes a couple of
+ * XORs to update. The keys come from a fixed seed, so the same state hashes
+ * the same way on every machine.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public final class Zobrist {
+
+	/**
+	 * Seed for the keys.
+	 */
+	private static final long SEED = 0x5EA7C0DEL;
+
+	/**
+	 * Key for a chest on each cell.
+	 */
+	private final long[] chestKeys;
+	/**
+	 * Key for the player on each cell.
+	 */
+	private final long[] playerKeys;
+
+	/**
+	 * Constructor for the keys of a level.
+	 *
+	 * @param size
+	 *            Number of cells in the level.
+	 */
+	public Zobrist(int size) {
+		SplittableRandom random = new SplittableRandom(SEED);
+		chestKeys = new long[size];
+		playerKeys = new long[size];
+		for (int index = 0; index < size; index++) {
+			chestKeys[index] = random.nextLong();
+			playerKeys[index] = random.nextLong();
+		}
+	}
+
+	/**
+	 * Accessor for the number of cells.
+	 *
+	 * @return Number of cells the keys cover.
+	 */
+	public int getSize() {
+		return chestKeys.length;
+	}
+
+	/**
+	 * Accessor for the key of a chest on a cell.
+	 *
+	 * @param index
+	 *            Index of the cell.
+	 * @return Key of a chest on the cell.
+	 */
+	public long chest(int index) {
+		return chestKeys[index];
+	}
+
+	/**
+	 * Accessor for the key of the player on a cell.
+	 *
+	 * @param index
+	 *            Index of the cell, or -1 for no player.
+	 * @return Key of the player on the cell, or 0 for no player.
+	 */
+	public long player(int index) {
+		return index < 0 ? 0 : playerKeys[index];
+	}
+}
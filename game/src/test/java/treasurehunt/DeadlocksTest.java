@@ -0,0 +1,228 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the deadlocks spotted while a level is played.
+ *
+ * Besides a level for each kind of deadlock, small levels are played at
+ * random and every state found deadlocked is handed to the solver, which
+ * must prove it can never be solved.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class DeadlocksTest implements Commons {
+
+	/**
+	 * Small levels for random play, in the standard Sokoban format.
+	 */
+	private static final String SMALL_LEVELS =
+			"####\n"
+			+ "# .#\n"
+			+ "#  ###\n"
+			+ "#*@  #\n"
+			+ "#  $ #\n"
+			+ "#  ###\n"
+			+ "####\n\n"
+			+ "######\n"
+			+ "#    #\n"
+			+ "# #@ #\n"
+			+ "# $* #\n"
+			+ "# .* #\n"
+			+ "#    #\n"
+			+ "######\n\n"
+			+ "  ####\n"
+			+ "###  ####\n"
+			+ "#     $ #\n"
+			+ "# #  #$ #\n"
+			+ "# . .#@ #\n"
+			+ "#########\n\n"
+			+ "########\n"
+			+ "#      #\n"
+			+ "# .**$@#\n"
+			+ "#      #\n"
+			+ "#####  #\n"
+			+ "    ####\n\n"
+			+ " #######\n"
+			+ " #     #\n"
+			+ " # .$. #\n"
+			+ "## $@$ #\n"
+			+ "#  .$. #\n"
+			+ "#      #\n"
+			+ "########\n\n"
+			+ "#####\n"
+			+ "#.  #\n"
+			+ "#.# #\n"
+			+ "#$ $#\n"
+			+ "#@  #\n"
+			+ "#####\n\n"
+			+ "   ####\n"
+			+ "####  #\n"
+			+ "#   $ #\n"
+			+ "# .$. #\n"
+			+ "## @ ##\n"
+			+ " #####";
+
+	/**
+	 * Number of games played at random.
+	 */
+	private static final int GAMES = 3000;
+	/**
+	 * Most moves made in each game.
+	 */
+	private static final int MOVES = 200;
+
+	/**
+	 * Method to play moves, given as the letters u, r, d and l.
+	 *
+	 * @param layout
+	 *            Layout of the level.
+	 * @param moves
+	 *            Moves to make.
+	 * @return Simulation after the moves.
+	 */
+	private static Simulation play(String layout, String moves) {
+		Simulation simulation = new Simulation(new Level(layout));
+		for (char move : moves.toCharArray())
+			simulation.move("urdl".indexOf(Character.toLowerCase(move)) + 1);
+		return simulation;
+	}
+
+	/**
+	 * Method to make a level that starts where a game is now.
+	 *
+	 * @param simulation
+	 *            Game in progress.
+	 * @return Level with the chests and player where they are in the game.
+	 */
+	private static Level levelAt(Simulation simulation) {
+		Level level = simulation.getLevel();
+		byte[] cells = new byte[level.getSize()];
+		int[] chests = new int[level.getChestCount()];
+		int found = 0;
+		for (int index = 0; index < cells.length; index++) {
+			cells[index] = (byte) (level.getCell(index) & ~CHEST_CELL);
+			if (simulation.hasChest(index))
+				chests[found++] = index;
+		}
+		return new Level(level.getColumns(), level.getRows(), cells, chests,
+				simulation.getPlayer());
+	}
+
+	/**
+	 * Test that a chest pushed into a corner off a goal is deadlocked, and
+	 * that undo clears it.
+	 */
+	@Test
+	public void cornerIsDeadlocked() {
+		Simulation simulation = play("WWWWWW\nW   .W\nW $@ W\nW    W\nWWWWWW",
+				"l");
+		assertTrue(simulation.isDeadlocked());
+		simulation.undo();
+		assertFalse(simulation.isDeadlocked());
+		simulation.redo();
+		assertTrue(simulation.isDeadlocked());
+		simulation.reset();
+		assertFalse(simulation.isDeadlocked());
+	}
+
+	/**
+	 * Test that two chests side by side against a wall are deadlocked.
+	 */
+	@Test
+	public void pairOnWallIsDeadlocked() {
+		Simulation simulation = play(
+				"WWWWWWW\nW.$.  W\nW  $  W\nW  @  W\nWWWWWWW", "u");
+		assertTrue(simulation.isDeadlocked());
+		assertEquals(2, simulation.getDeadlocked().length);
+	}
+
+	/**
+	 * Test that a square of four chests is deadlocked.
+	 */
+	@Test
+	public void squareIsDeadlocked() {
+		Simulation simulation = play(
+				"WWWWWWWW\nW      W\nW $$   W\nW $ $@ W\nW....  W\nWWWWWWWW",
+				"l");
+		assertTrue(simulation.isDeadlocked());
+		assertEquals(4, simulation.getDeadlocked().length);
+	}
+
+	/**
+	 * Test that a chest pushed onto a goal in a doorway, shutting an empty
+	 * goal away from the player, is deadlocked.
+	 */
+	@Test
+	public void sealedGoalIsDeadlocked() {
+		String layout = "WWWWWWW\nW.W   W\nW *.$@W\nW  W$ W\nWWWW  W\nWWWWWWW";
+		assertFalse(play(layout, "").isDeadlocked());
+		assertTrue(play(layout, "l").isDeadlocked());
+	}
+
+	/**
+	 * Test that nothing is flagged along a solution of the first level.
+	 */
+	@Test
+	public void solutionIsNeverDeadlocked() {
+		Level level = new Level(levelOne);
+		String solution = new Solver(level).solve();
+		Simulation simulation = new Simulation(level);
+		for (char move : solution.toCharArray()) {
+			simulation.move("urdl".indexOf(Character.toLowerCase(move)) + 1);
+			assertFalse(simulation.isDeadlocked(), "flagged after "
+					+ simulation.getLog().size() + " moves");
+		}
+		assertTrue(simulation.isSolved());
+	}
+
+	/**
+	 * Test that every state flagged in random play can never be solved.
+	 *
+	 * @throws IOException
+	 *             If the levels can not be read.
+	 */
+	@Test
+	public void flaggedStatesAreUnsolvable() throws IOException {
+		List<Level> levels = new ArrayList<Level>();
+		SokobanReader reader = new SokobanReader(new StringReader(SMALL_LEVELS));
+		try {
+			while (reader.hasNext())
+				levels.add(reader.next());
+		} finally {
+			reader.close();
+		}
+
+		Random random = new Random(7);
+		int checked = 0;
+		for (int game = 0; game < GAMES; game++) {
+			Level level = levels.get(random.nextInt(levels.size()));
+			Simulation simulation = new Simulation(level);
+			for (int move = 0; move < MOVES && !simulation.isDeadlocked()
+					&& !simulation.isFinished(); move++)
+				simulation.move(1 + random.nextInt(4));
+			if (!simulation.isDeadlocked())
+				continue;
+			Solver solver = new Solver(levelAt(simulation));
+			assertNull(solver.solve(), "deadlocked chests at "
+					+ Arrays.toString(simulation.getDeadlocked())
+					+ " can still be solved");
+			assertFalse(solver.isAborted());
+			checked++;
+		}
+		assertTrue(checked > 0);
+	}
+}
@@ -0,0 +1,161 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for level packs and the text format they are converted from.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class LevelPackTest implements Commons {
+
+	/**
+	 * Level with every kind of cell, and an odd number of cells so the last
+	 * byte of the pack is half used.
+	 */
+	private static final String EVERY_CELL = "TTTTTTT\n"
+			+ "T.$*@ W\n"
+			+ "TS  + T\n"
+			+ "TTTTTTT\n"
+			+ "       ";
+
+	/**
+	 * Directory for the files the tests write.
+	 */
+	@TempDir
+	File folder;
+
+	/**
+	 * Method to check that two levels have the same layout.
+	 *
+	 * @param expected
+	 *            Level that was written.
+	 * @param actual
+	 *            Level that was read back.
+	 */
+	private static void assertSameLevel(Level expected, Level actual) {
+		assertEquals(expected.getColumns(), actual.getColumns());
+		assertEquals(expected.getRows(), actual.getRows());
+		for (int index = 0; index < expected.getSize(); index++)
+			assertEquals(expected.getCell(index), actual.getCell(index),
+					"cell " + index);
+		int[] chests = expected.getChests().clone();
+		int[] read = actual.getChests().clone();
+		Arrays.sort(chests);
+		Arrays.sort(read);
+		assertArrayEquals(chests, read);
+		assertEquals(expected.getPlayer(), actual.getPlayer());
+		assertEquals(expected.getGoalCount(), actual.getGoalCount());
+	}
+
+	/**
+	 * Test that levels read back from a pack are the levels written.
+	 *
+	 * @throws IOException
+	 *             If the pack can not be written or read.
+	 */
+	@Test
+	public void roundTrip() throws IOException {
+		List<Level> levels = Arrays.asList(new Level(levelOne), new Level(
+				EVERY_CELL));
+		File file = new File(folder, "levels.pack");
+		LevelPack.write(levels, file);
+		LevelPack pack = new LevelPack(file);
+		try {
+			assertEquals(2, pack.size());
+			// Read out of order; each level has its own place in the index.
+			assertSameLevel(levels.get(1), pack.get(1));
+			assertSameLevel(levels.get(0), pack.get(0));
+		} finally {
+			pack.close();
+		}
+	}
+
+	/**
+	 * Test that the converter packs a text file, keeping a row of spaces as
+	 * floor rather than splitting the level there.
+	 *
+	 * @throws IOException
+	 *             If a file can not be written or read.
+	 */
+	@Test
+	public void convertsText() throws IOException {
+		String first = "TTTTT\nT@$.T\n     \nTTTTT";
+		String second = "TTTT\nT+*T\nTTTT";
+		File text = new File(folder, "levels.txt");
+		Files.write(text.toPath(), (first + "\n\n\n" + second + "\n")
+				.getBytes(StandardCharsets.UTF_8));
+		File file = new File(folder, "levels.pack");
+		LevelPack.main(new String[] { text.getPath(), file.getPath() });
+
+		LevelPack pack = new LevelPack(file);
+		try {
+			assertEquals(2, pack.size());
+			assertSameLevel(new Level(first), pack.get(0));
+			assertEquals(4, pack.get(0).getRows());
+			assertSameLevel(new Level(second), pack.get(1));
+		} finally {
+			pack.close();
+		}
+	}
+
+	/**
+	 * Test that a file that is not a pack is refused.
+	 *
+	 * @throws IOException
+	 *             If the file can not be written.
+	 */
+	@Test
+	public void refusesOtherFiles() throws IOException {
+		File file = new File(folder, "other.pack");
+		Files.write(file.toPath(), "not a level pack".getBytes(
+				StandardCharsets.UTF_8));
+		assertThrows(IOException.class, () -> new LevelPack(file));
+	}
+
+	/**
+	 * Test that a level running past the end of the file is reported by
+	 * number instead of being read out of bounds.
+	 *
+	 * @throws IOException
+	 *             If the pack can not be written or read.
+	 */
+	@Test
+	public void namesBrokenLevel() throws IOException {
+		File file = new File(folder, "broken.pack");
+		LevelPack.write(Arrays.asList(new Level(levelOne)), file);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			// The only level starts after the header and a one entry index;
+			// claim it is 65535 by 65535 cells.
+			raf.seek(16);
+			raf.writeInt(-1);
+		} finally {
+			raf.close();
+		}
+		LevelPack pack = new LevelPack(file);
+		try {
+			UncheckedIOException e = assertThrows(UncheckedIOException.class,
+					() -> pack.get(0));
+			assertTrue(e.getMessage().contains("Level 0"), e.getMessage());
+		} finally {
+			pack.close();
+		}
+	}
+}
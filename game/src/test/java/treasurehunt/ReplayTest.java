@@ -0,0 +1,165 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for recording, saving and checking replays.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class ReplayTest implements Commons {
+
+	/**
+	 * Game time, in milliseconds, between recorded moves.
+	 */
+	private static final int STEP = 150;
+
+	/**
+	 * Solution of the first level, found once for all the tests.
+	 */
+	private static String solution;
+
+	/**
+	 * Directory for the files the tests write.
+	 */
+	@TempDir
+	File folder;
+
+	/**
+	 * Method to solve the first level before the tests run.
+	 */
+	@BeforeAll
+	public static void solve() {
+		solution = new Solver(new Level(levelOne)).solve();
+	}
+
+	/**
+	 * Method to turn a move letter into a direction.
+	 *
+	 * @param move
+	 *            One of u, r, d and l, in either case.
+	 * @return Direction of the move.
+	 */
+	private static int direction(char move) {
+		return "urdl".indexOf(Character.toLowerCase(move)) + 1;
+	}
+
+	/**
+	 * Method to record a list of moves, one every STEP milliseconds.
+	 *
+	 * @param replay
+	 *            Recording to add to.
+	 * @param moves
+	 *            Moves, as letters.
+	 * @param time
+	 *            Game time of the first move.
+	 * @return Game time after the last move.
+	 */
+	private static long record(Replay replay, String moves, long time) {
+		for (char move : moves.toCharArray()) {
+			time += STEP;
+			replay.record(time, direction(move));
+		}
+		return time;
+	}
+
+	/**
+	 * Test that a recorded solution saved to a file and read back still
+	 * solves the level.
+	 *
+	 * @throws IOException
+	 *             If the file can not be written or read.
+	 */
+	@Test
+	public void roundTrip() throws IOException {
+		Level level = new Level(levelOne);
+		Replay replay = new Replay(level);
+		record(replay, solution, 0);
+		assertTrue(replay.verify(level));
+
+		File file = new File(folder, "level.replay");
+		replay.write(file);
+		assertEquals(replay.size(), file.length());
+		Replay read = Replay.read(file);
+		assertTrue(read.verify(level));
+
+		Replay.Cursor events = read.cursor();
+		for (int move = 0; move < solution.length(); move++) {
+			assertTrue(events.next());
+			assertEquals((move + 1L) * STEP, events.getTime());
+			assertEquals(direction(solution.charAt(move)), events.getAction());
+		}
+		assertFalse(events.next());
+	}
+
+	/**
+	 * Test that a recording with an undo, a redo and a restart part way
+	 * through still solves the level.
+	 */
+	@Test
+	public void playsUndoAndRestart() {
+		Level level = new Level(levelOne);
+		Replay replay = new Replay(level);
+		long time = record(replay, solution.substring(0, 10), 0);
+		replay.record(time += STEP, Replay.UNDO);
+		replay.record(time += STEP, Replay.REDO);
+		replay.record(time + STEP, Replay.RESTART);
+		record(replay, solution, 0);
+		assertTrue(replay.verify(level));
+
+		Replay partial = new Replay(level);
+		record(partial, solution.substring(0, solution.length() - 1), 0);
+		assertFalse(partial.verify(level));
+	}
+
+	/**
+	 * Test that a recording is refused for a level that starts with the chests
+	 * and player in the same places but has a wall or goal moved.
+	 */
+	@Test
+	public void refusesOtherLayouts() {
+		Level level = new Level(levelOne);
+		Replay replay = new Replay(level);
+		record(replay, solution, 0);
+		assertTrue(replay.isFor(new Level(levelOne)));
+
+		Level walled = new Level(levelOne.replace("W            TTW",
+				"WT           TTW"));
+		Level moved = new Level(levelOne.replace("W...T     T    W",
+				"W.. T.    T    W"));
+		for (Level other : new Level[] { walled, moved }) {
+			// The start state alone can not tell these levels apart.
+			assertEquals(level.createState().getHash(), other.createState()
+					.getHash());
+			assertNotEquals(level.getFingerprint(), other.getFingerprint());
+			assertFalse(replay.isFor(other));
+			assertFalse(replay.verify(other));
+		}
+	}
+
+	/**
+	 * Test that a recording made with the old header, which held only the
+	 * hash of the start state, is refused.
+	 */
+	@Test
+	public void refusesOldVersion() {
+		byte[] bytes = new Replay(new Level(levelOne)).toByteArray();
+		bytes[4] = 1;
+		IOException e = assertThrows(IOException.class, () -> new Replay(
+				bytes));
+		assertTrue(e.getMessage().contains("version 1"), e.getMessage());
+		assertThrows(IOException.class, () -> new Replay(new byte[4]));
+	}
+}
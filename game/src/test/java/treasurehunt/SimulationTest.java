@@ -0,0 +1,133 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for undo and redo in the simulation, and the move log behind them.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class SimulationTest implements Commons {
+
+	/**
+	 * Level with a chest beside a goal and a second goal, so pushing the
+	 * chest on scores without solving the level.
+	 */
+	private static final String TWO_GOALS = "WWWWWWW\nW@ $. W\nW    .W\nWWWWWWW";
+
+	/**
+	 * Method to turn a move letter into a direction.
+	 *
+	 * @param move
+	 *            One of u, r, d and l, in either case.
+	 * @return Direction of the move.
+	 */
+	private static int direction(char move) {
+		return "urdl".indexOf(Character.toLowerCase(move)) + 1;
+	}
+
+	/**
+	 * Test that undoing every move of most of a solution puts back the
+	 * starting state and score, and redoing them all comes back to the same
+	 * place.
+	 */
+	@Test
+	public void undoRestoresStateAndScore() {
+		Level level = new Level(levelOne);
+		String solution = new Solver(level).solve();
+		Simulation simulation = new Simulation(level);
+		long startHash = simulation.getHash();
+		int startScore = simulation.getScore();
+
+		// Stop one move short, as a solved level takes no more undos.
+		String moves = solution.substring(0, solution.length() - 1);
+		for (char move : moves.toCharArray())
+			assertNotEquals(Simulation.BLOCKED,
+					simulation.move(direction(move)));
+		long endHash = simulation.getHash();
+		int endScore = simulation.getScore();
+		assertNotEquals(startScore, endScore);
+
+		for (int step = moves.length() - 1; step >= 0; step--) {
+			int undone = simulation.undo();
+			assertEquals(direction(moves.charAt(step)),
+					MoveLog.direction(undone));
+			assertEquals(Character.isUpperCase(moves.charAt(step)),
+					MoveLog.pushed(undone));
+		}
+		assertEquals(-1, simulation.undo());
+		assertEquals(startHash, simulation.getHash());
+		assertEquals(startScore, simulation.getScore());
+		assertEquals(level.createState(), simulation.getState());
+
+		while (simulation.redo() >= 0)
+			;
+		assertEquals(endHash, simulation.getHash());
+		assertEquals(endScore, simulation.getScore());
+
+		simulation.move(direction(solution.charAt(solution.length() - 1)));
+		assertTrue(simulation.isSolved());
+		assertEquals(-1, simulation.undo());
+	}
+
+	/**
+	 * Test that a new move drops the moves that could have been redone, and
+	 * a blocked move is not logged.
+	 */
+	@Test
+	public void newMoveDropsRedo() {
+		Simulation simulation = new Simulation(new Level(TWO_GOALS));
+		assertEquals(Simulation.BLOCKED, simulation.move(LEFT_COLLISION));
+		assertEquals(0, simulation.getLog().size());
+		simulation.move(RIGHT_COLLISION);
+		simulation.move(RIGHT_COLLISION);
+		simulation.undo();
+		assertTrue(simulation.getLog().canRedo());
+		simulation.move(LEFT_COLLISION);
+		assertFalse(simulation.getLog().canRedo());
+		assertEquals(2, simulation.getLog().size());
+	}
+
+	/**
+	 * Test that reset puts back the start and empties the log.
+	 */
+	@Test
+	public void resetRestoresStart() {
+		Simulation simulation = new Simulation(new Level(TWO_GOALS));
+		long startHash = simulation.getHash();
+		simulation.move(RIGHT_COLLISION);
+		simulation.move(RIGHT_COLLISION);
+		assertEquals(1, simulation.getScore());
+		simulation.reset();
+		assertEquals(startHash, simulation.getHash());
+		assertEquals(0, simulation.getScore());
+		assertFalse(simulation.isSolved());
+		assertFalse(simulation.getLog().canUndo());
+	}
+
+	/**
+	 * Test that steps packed across many words of the log read back as
+	 * they were written.
+	 */
+	@Test
+	public void logPacksSteps() {
+		MoveLog log = new MoveLog();
+		for (int step = 0; step < 1000; step++)
+			log.add(step % 4 + 1, step % 3 == 0);
+		assertEquals(1000, log.size());
+		for (int step = 0; step < 1000; step++) {
+			assertEquals(step % 4 + 1, MoveLog.direction(log.get(step)));
+			assertEquals(step % 3 == 0, MoveLog.pushed(log.get(step)));
+		}
+		for (int step = 999; step >= 990; step--)
+			assertEquals(step % 4 + 1, MoveLog.direction(log.undo()));
+		assertEquals(990, log.size());
+		assertEquals(990 % 4 + 1, MoveLog.direction(log.redo()));
+	}
+}
@@ -0,0 +1,159 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for reading standard Sokoban collections.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class SokobanReaderTest implements Commons {
+
+	/**
+	 * Collection with a title before one level, a title after another, a
+	 * plain comment between two boards and a field that is not a title.
+	 */
+	private static final String COLLECTION = "; First\n"
+			+ "#####\n"
+			+ "#@$.#\n"
+			+ "#####\n"
+			+ "; Second\n"
+			+ "#####\n"
+			+ "#@$.#\n"
+			+ "#####\n"
+			+ "Title: Third\n"
+			+ "Author: Someone\n"
+			+ "\n"
+			+ "#####\n"
+			+ "#@$.#\n"
+			+ "#####\n"
+			+ "\n"
+			+ "#####\n"
+			+ "#@$.#\n"
+			+ "#####\n";
+
+	/**
+	 * Method to make a reader of some collection text.
+	 *
+	 * @param text
+	 *            Text of the collection.
+	 * @return Reader for it.
+	 */
+	private static SokobanReader reader(String text) {
+		return new SokobanReader(new StringReader(text));
+	}
+
+	/**
+	 * Test that every symbol of the standard format becomes the matching
+	 * cell.
+	 */
+	@Test
+	public void mapsSymbols() {
+		SokobanReader reader = reader("#######\n#.$*@-#\n#_ . $#\n#######\n"
+				+ "\n####\n#+$#\n####\n");
+		Level level = reader.next();
+		assertEquals(7, level.getColumns());
+		assertEquals(4, level.getRows());
+		assertEquals(TREE_CELL, level.getCell(0));
+		assertTrue(level.isGoal(8));
+		assertTrue(level.isGoal(10));
+		assertTrue(level.isGoal(17));
+		assertEquals(0, level.getCell(12));
+		assertEquals(0, level.getCell(15));
+		assertEquals(0, level.getCell(16));
+		assertEquals(3, level.getChestCount());
+		assertEquals(3, level.getGoalCount());
+		assertEquals(11, level.getPlayer());
+
+		Level onGoal = reader.next();
+		assertEquals(5, onGoal.getPlayer());
+		assertTrue(onGoal.isGoal(5));
+		assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * Test that titles and comments go to the right levels.
+	 */
+	@Test
+	public void readsTitles() {
+		SokobanReader reader = reader(COLLECTION);
+		reader.next();
+		assertEquals("First", reader.getTitle());
+		// A title after the board wins over the comment before it.
+		reader.next();
+		assertEquals("Third", reader.getTitle());
+		reader.next();
+		assertNull(reader.getTitle());
+		reader.next();
+		assertNull(reader.getTitle());
+		assertFalse(reader.hasNext());
+		assertEquals(4, reader.getCount());
+	}
+
+	/**
+	 * Test that a comment straight after a board is kept for the next level.
+	 */
+	@Test
+	public void keepsCommentForNextLevel() {
+		SokobanReader reader = reader("####\n#@.#\n####\n; Next\n"
+				+ "####\n#@.#\n####\n");
+		reader.next();
+		assertNull(reader.getTitle());
+		reader.next();
+		assertEquals("Next", reader.getTitle());
+	}
+
+	/**
+	 * Test that skipping keeps count and titles.
+	 */
+	@Test
+	public void skipsLevels() {
+		SokobanReader reader = reader(COLLECTION);
+		assertEquals(1, reader.skip(1));
+		assertEquals("First", reader.getTitle());
+		reader.next();
+		assertEquals(2, reader.getCount());
+		assertEquals(2, reader.skip(5));
+		assertEquals(4, reader.getCount());
+		assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * Test that a board taller than the limit is reported when read, and the
+	 * level after it still reads.
+	 */
+	@Test
+	public void passesOverTallBoards() {
+		StringBuilder text = new StringBuilder();
+		for (int row = 0; row <= SokobanReader.MAX_ROWS; row++)
+			text.append("#@$.#\n");
+		text.append("\n#####\n#@$.#\n#####\n");
+		SokobanReader reader = reader(text.toString());
+		assertThrows(UncheckedIOException.class, reader::next);
+		assertEquals(3, reader.next().getRows());
+		assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * Test that a line longer than the limit is not part of a board.
+	 */
+	@Test
+	public void passesOverLongLines() {
+		StringBuilder line = new StringBuilder();
+		for (int column = 0; column <= SokobanReader.MAX_LINE; column++)
+			line.append('#');
+		assertFalse(SokobanReader.isBoardLine(line.toString()));
+		assertTrue(SokobanReader.isBoardLine("#@ $.#"));
+		assertFalse(SokobanReader.isBoardLine("Title: #1"));
+	}
+}
@@ -0,0 +1,147 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the solver, its open list and its estimate.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class SolverTest implements Commons {
+
+	/**
+	 * Room where the chest nearest each goal is not the one to push onto it;
+	 * 8 pushes at best.
+	 */
+	private static final String CROSSED = "WWWWWWWWWWWWWWWW\n"
+			+ "W              W\n"
+			+ "W              W\n"
+			+ "W  $.$      .  W\n"
+			+ "W      @       W\n"
+			+ "W              W\n"
+			+ "WWWWWWWWWWWWWWWW";
+
+	/**
+	 * Method to check that moves solve a level.
+	 *
+	 * @param level
+	 *            Level the moves are for.
+	 * @param moves
+	 *            Moves, as the letters u, r, d and l.
+	 */
+	private static void assertSolves(Level level, String moves) {
+		Simulation simulation = new Simulation(level);
+		for (char move : moves.toCharArray())
+			simulation.move("urdl".indexOf(Character.toLowerCase(move)) + 1);
+		assertTrue(simulation.isSolved());
+	}
+
+	/**
+	 * Test that the first level is solved in the fewest pushes.
+	 */
+	@Test
+	public void solvesFirstLevelOptimally() {
+		Level level = new Level(levelOne);
+		Solver solver = new Solver(level);
+		String moves = solver.solve();
+		assertNotNull(moves);
+		assertEquals(91, solver.getPushes());
+		assertSolves(level, moves);
+	}
+
+	/**
+	 * Test that A* and IDA* agree on the fewest pushes.
+	 */
+	@Test
+	public void searchesAgree() {
+		Level level = new Level(CROSSED);
+		Solver best = new Solver(level);
+		assertSolves(level, best.solve());
+		Solver deepening = new Solver(level);
+		deepening.setAlgorithm(Solver.IDA_STAR);
+		assertSolves(level, deepening.solve());
+		assertEquals(8, best.getPushes());
+		assertEquals(8, deepening.getPushes());
+	}
+
+	/**
+	 * Test that the estimate is the cheapest matching of chests with goals,
+	 * not each goal taking its nearest chest.
+	 */
+	@Test
+	public void estimateMatchesChestsWithGoals() {
+		Level level = new Level(CROSSED);
+		assertEquals(8, new Solver(level).estimate(level.createState()));
+	}
+
+	/**
+	 * Test that a level with no way to push a chest out of a corner has no
+	 * solution, and the search says so without giving up.
+	 */
+	@Test
+	public void provesUnsolvable() {
+		Solver solver = new Solver(new Level("WWWWWW\nW$  .W\nW  @ W\nWWWWWW"));
+		assertNull(solver.solve());
+		assertFalse(solver.isAborted());
+	}
+
+	/**
+	 * Test that a search stopped by its state limit gives up.
+	 */
+	@Test
+	public void givesUpAtStateLimit() {
+		Solver solver = new Solver(new Level(levelOne));
+		solver.setMaxStates(100);
+		assertNull(solver.solve());
+		assertTrue(solver.isAborted());
+	}
+
+	/**
+	 * Test that the open list hands out the lowest total first, with ties
+	 * going to the node with more pushes, and keeps each node's state.
+	 */
+	@Test
+	public void openListOrdersNodes() {
+		Level level = new Level(CROSSED);
+		State state = level.createState();
+		OpenList open = new OpenList(state.getWords(), 10);
+		int first = open.add(state, 0, 9, -1, 0, 0);
+		int second = open.add(state, 3, 4, first, 5, RIGHT_COLLISION);
+		int third = open.add(state, 5, 2, second, 6, LEFT_COLLISION);
+		assertEquals(third, open.poll());
+		assertEquals(second, open.poll());
+		assertEquals(first, open.poll());
+		assertTrue(open.isEmpty());
+
+		assertEquals(second, open.getParent(third));
+		assertEquals(6, open.getChest(third));
+		assertEquals(LEFT_COLLISION, open.getDirection(third));
+		State loaded = level.createState();
+		loaded.setPlayer(0);
+		open.load(third, loaded);
+		assertEquals(state, loaded);
+		assertEquals(state.getHash(), loaded.getHash());
+	}
+
+	/**
+	 * Test that the open list stops at its capacity.
+	 */
+	@Test
+	public void openListFills() {
+		State state = new Level(CROSSED).createState();
+		OpenList open = new OpenList(state.getWords(), 2);
+		open.add(state, 0, 0, -1, 0, 0);
+		open.add(state, 0, 0, -1, 0, 0);
+		assertTrue(open.isFull());
+		assertThrows(IllegalStateException.class,
+				() -> open.add(state, 0, 0, -1, 0, 0));
+	}
+}
@@ -0,0 +1,116 @@
+package treasurehunt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the Zobrist hashes of states and the transposition table they
+ * are stored in.
+ *
+ * @author Rodney Earl
+ * @version 1.0
+ */
+public class TranspositionTableTest implements Commons {
+
+	/**
+	 * Test that a hash kept up to date move by move matches the hash of the
+	 * same state built from scratch.
+	 */
+	@Test
+	public void hashFollowsMoves() {
+		Level level = new Level(levelOne);
+		State moved = level.createState();
+		int chest = moved.nextChest(0);
+		int target = level.neighbour(chest, BOTTOM_COLLISION);
+		moved.moveChest(chest, target);
+		moved.setPlayer(chest);
+
+		State built = new State(new Zobrist(level.getSize()));
+		for (int index : level.getChests())
+			built.addChest(index == chest ? target : index);
+		built.setPlayer(chest);
+		assertEquals(built.getHash(), moved.getHash());
+		assertEquals(built, moved);
+		assertNotEquals(level.createState().getHash(), moved.getHash());
+	}
+
+	/**
+	 * Test that the keys are the same every time, so hashes can be compared
+	 * between runs.
+	 */
+	@Test
+	public void keysAreFixed() {
+		Zobrist one = new Zobrist(64);
+		Zobrist two = new Zobrist(64);
+		for (int index = 0; index < 64; index++) {
+			assertEquals(one.chest(index), two.chest(index));
+			assertEquals(one.player(index), two.player(index));
+		}
+		assertEquals(0, one.player(-1));
+	}
+
+	/**
+	 * Test that a stored state is found again and a missing one is not.
+	 */
+	@Test
+	public void storesAndProbes() {
+		TranspositionTable table = new TranspositionTable(4,
+				TranspositionTable.ALWAYS_REPLACE);
+		assertEquals(16, table.getCapacity());
+		assertEquals(TranspositionTable.MISSING, table.probe(5));
+		table.store(5, 42, 0);
+		assertEquals(42, table.probe(5));
+		assertEquals(1, table.getHits());
+		assertEquals(1, table.getMisses());
+		table.clear();
+		assertEquals(TranspositionTable.MISSING, table.probe(5));
+	}
+
+	/**
+	 * Test that a new state in the same slot replaces the old one.
+	 */
+	@Test
+	public void alwaysReplaces() {
+		TranspositionTable table = new TranspositionTable(4,
+				TranspositionTable.ALWAYS_REPLACE);
+		// 1 and 17 land on the same slot of a 16 slot table.
+		table.store(1, 10, 5);
+		table.store(17, 20, 0);
+		assertEquals(TranspositionTable.MISSING, table.probe(1));
+		assertEquals(20, table.probe(17));
+		assertEquals(1, table.getOverwrites());
+	}
+
+	/**
+	 * Test that a shallower state does not push out a deeper one, but a new
+	 * value for the same state is always kept.
+	 */
+	@Test
+	public void keepsDeeperEntries() {
+		TranspositionTable table = new TranspositionTable(4,
+				TranspositionTable.DEPTH_PREFERRED);
+		table.store(1, 10, 5);
+		table.store(17, 20, 4);
+		assertEquals(10, table.probe(1));
+		assertEquals(TranspositionTable.MISSING, table.probe(17));
+		table.store(1, 11, 0);
+		assertEquals(11, table.probe(1));
+		table.store(17, 20, 0);
+		assertEquals(20, table.probe(17));
+		assertEquals(1, table.getOverwrites());
+	}
+
+	/**
+	 * Test that a table size outside the supported range is refused.
+	 */
+	@Test
+	public void refusesBadSizes() {
+		assertThrows(IllegalArgumentException.class,
+				() -> new TranspositionTable(0, TranspositionTable.ALWAYS_REPLACE));
+		assertThrows(IllegalArgumentException.class,
+				() -> new TranspositionTable(31, TranspositionTable.ALWAYS_REPLACE));
+	}
+}